@@ -0,0 +1,180 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+public class BenchmarkSuite { // Throughput of the scheduler hot paths, results written as JSON to diff between versions
+    static int warmups = 2; // Iterations run before measuring
+    static int iterations = 5; // Measured iterations
+    static List<String> results = new ArrayList<>(); // JSON objects of the finished benchmarks
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {1_000, 100_000};
+        String json = null;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "-sizes": // e.g. -sizes 1000,100000,10000000
+                    String[] list = args[++k].split(",");
+                    sizes = new int[list.length];
+                    for (int n = 0; n < list.length; n++)
+                        sizes[n] = Integer.parseInt(list[n]);
+                    break;
+                case "-json":
+                    json = args[++k];
+                    break;
+                case "-i":
+                    iterations = Integer.parseInt(args[++k]);
+                    break;
+                case "-wi":
+                    warmups = Integer.parseInt(args[++k]);
+                    break;
+                default:
+                    System.err.println("Usage: java BenchmarkSuite [-sizes n,n,...] [-i iterations] [-wi warmups] [-json file]");
+                    System.exit(1);
+            }
+        }
+
+        for (int n : sizes) {
+            ProcessTable workload = syntheticWorkload(n, 42);
+            for (String eventQueue : new String[]{"heap", "wheel"}) {
+                for (String name : new String[]{"FCFS", "VRR", "SRT", "HRRN", "FEEDBACK"}) {
+                    Map<String, String> settings = new HashMap<>();
+                    settings.put("name", name);
+                    settings.put("quantum", "3");
+                    settings.put("alpha", "0.8");
+                    settings.put("service_give", "false");
+                    settings.put("num_priorities", "4");
+                    settings.put("log", "off");
+                    settings.put("event_queue", eventQueue);
+                    measure(name.toLowerCase() + "Handler", "processes=" + n + (eventQueue.equals("heap") ? "" : ",event_queue=" + eventQueue), "events/s", () -> {
+                        ScheduleAlgorithm sa = new ScheduleAlgorithm(settings);
+                        sa.shareProcesses(workload);
+                        sa.simulate(SchedulingPolicy.forName(name));
+                        return sa.eventCount;
+                    });
+                }
+            }
+        }
+        compareTo();
+        updateEventQueue(10_000);
+        parse();
+
+        if (json != null) {
+            try (PrintWriter out = new PrintWriter(json)) {
+                out.println("[");
+                out.println(String.join(",\n", results));
+                out.println("]");
+            }
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    static ProcessTable syntheticWorkload(int n, long seed) { // CPU and IO bursts with a steady arrival rate
+        Random random = new Random(seed);
+        ProcessTable table = new ProcessTable();
+        int arrival = 0;
+        for (int k = 0; k < n; k++) {
+            arrival += random.nextInt(20);
+            table.addProcess(arrival);
+            int bursts = 1 + random.nextInt(4);
+            for (int b = 0; b < bursts; b++) {
+                if (b > 0)
+                    table.addActivity(Process.ActivityCode.IO, 1 + random.nextInt(30));
+                table.addActivity(Process.ActivityCode.CPU, 1 + random.nextInt(10));
+            }
+        }
+        return table;
+    }
+
+    static void compareTo() {
+        for (Process.Ordering ordering : Process.Ordering.values()) {
+            Random random = new Random(42);
+            Process[] processes = new Process[1 << 12];
+            for (int k = 0; k < processes.length; k++) {
+                processes[k] = new Process(k + 1, random.nextInt(8), ordering, "CPU 1");
+                processes[k].setCurrEventCode(Process.Event.values()[random.nextInt(5)]);
+                processes[k].setRemainingBurstTime(random.nextInt(100));
+            }
+            measure("Process.compareTo", "ordering=" + ordering, "ops/s", () -> {
+                int sum = 0;
+                for (int round = 0; round < 1_000; round++)
+                    for (int k = 1; k < processes.length; k++)
+                        sum += processes[k - 1].compareTo(processes[k]);
+                blackhole = sum;
+                return 1_000L * (processes.length - 1);
+            });
+        }
+    }
+
+    static void updateEventQueue(int n) { // Re-prioritization of the indexed heap, which replaced the drain and refill of updateEventQueue
+        IndexedPriorityQueue<Process> queue = new IndexedPriorityQueue<>(Process.Ordering.REMAINING_BURST);
+        Random random = new Random(42);
+        Process[] processes = new Process[n];
+        for (int k = 0; k < n; k++) {
+            processes[k] = new Process(k + 1, 0, Process.Ordering.REMAINING_BURST, "CPU 1");
+            processes[k].setCurrEventCode(Process.Event.ARRIVE);
+            queue.add(processes[k]);
+        }
+        measure("updateEventQueue", "queued=" + n, "ops/s", () -> {
+            for (int k = 0; k < 100; k++) {
+                for (Process p : processes)
+                    p.setRemainingBurstTime(random.nextInt(1_000));
+                queue.heapify();
+            }
+            return 100;
+        });
+        measure("updateEventQueue(process)", "queued=" + n, "ops/s", () -> {
+            for (int k = 0; k < 100_000; k++) {
+                Process p = processes[random.nextInt(n)];
+                p.setRemainingBurstTime(random.nextInt(1_000));
+                queue.update(p);
+            }
+            return 100_000;
+        });
+    }
+
+    static void parse() throws IOException {
+        File file = File.createTempFile("workload", ".pf");
+        file.deleteOnExit();
+        ProcessFileParserBenchmark.generate(file, 64L << 20);
+        measure("ProcessFileParser", "megabytes=" + (file.length() >> 20), "MB/s", () -> {
+            try {
+                blackhole = ProcessFileParserBenchmark.parser(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return file.length() >> 20;
+        });
+    }
+
+    static long blackhole; // Keeps benchmark results alive
+
+    static void measure(String benchmark, String params, String unit, LongSupplier operation) { // operation returns its op count
+        for (int k = 0; k < warmups; k++)
+            operation.getAsLong();
+        double[] scores = new double[iterations];
+        for (int k = 0; k < iterations; k++) {
+            long start = System.nanoTime();
+            long ops = operation.getAsLong();
+            scores[k] = ops / ((System.nanoTime() - start) / 1e9);
+        }
+        double mean = 0;
+        for (double score : scores)
+            mean += score;
+        mean /= iterations;
+        double variance = 0;
+        for (double score : scores)
+            variance += (score - mean) * (score - mean);
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        System.out.printf(Locale.ROOT, "%-28s %-26s %16.1f +- %12.1f %s%n", benchmark, params, mean, error, unit);
+        results.add(String.format(Locale.ROOT,
+                "  {\"benchmark\": \"%s\", \"params\": \"%s\", \"score\": %.3f, \"error\": %.3f, \"unit\": \"%s\", \"iterations\": %d}",
+                benchmark, params, mean, error, unit, iterations));
+    }
+}
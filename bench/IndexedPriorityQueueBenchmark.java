@@ -0,0 +1,67 @@
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+
+public class IndexedPriorityQueueBenchmark { // Full queue rebuild vs in place update of one changed priority
+    static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    static final int UPDATES = 1_000; // Priority changes measured with update()
+    static final int REBUILDS = 5; // Priority changes measured with a full rebuild
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            boolean report = round == 1;
+            if (report)
+                System.out.printf("%10s %18s %18s %10s%n", "processes", "rebuild ns/op", "update ns/op", "speedup");
+            for (int n : SIZES) {
+                double rebuild = rebuild(n);
+                double update = update(n);
+                if (report)
+                    System.out.printf("%10d %18.0f %18.0f %9.0fx%n", n, rebuild, update, rebuild / update);
+            }
+        }
+    }
+
+    static Process[] createProcesses(int n, Random random) {
+        Process[] processes = new Process[n];
+        for (int k = 0; k < n; k++) {
+            processes[k] = new Process(k + 1, 0, Process.Ordering.REMAINING_BURST, "CPU 1");
+            processes[k].setCurrEventCode(Process.Event.ARRIVE);
+            processes[k].setRemainingBurstTime(random.nextInt(1_000_000));
+        }
+        return processes;
+    }
+
+    static double rebuild(int n) { // Old updateEventQueue: drain every event and add it back
+        Random random = new Random(42);
+        Process[] processes = createProcesses(n, random);
+        Queue<Process> eventQueue = new PriorityQueue<>();
+        Queue<Process> updateQueue = new LinkedList<>();
+        for (Process p : processes)
+            eventQueue.add(p);
+        long start = System.nanoTime();
+        for (int k = 0; k < REBUILDS; k++) {
+            processes[random.nextInt(n)].setRemainingBurstTime(random.nextInt(1_000_000));
+            while (!eventQueue.isEmpty())
+                updateQueue.add(eventQueue.remove());
+            while (!updateQueue.isEmpty())
+                eventQueue.add(updateQueue.remove());
+        }
+        return (double) (System.nanoTime() - start) / REBUILDS;
+    }
+
+    static double update(int n) {
+        Random random = new Random(42);
+        Process[] processes = createProcesses(n, random);
+        IndexedPriorityQueue<Process> eventQueue = new IndexedPriorityQueue<>(Process.Ordering.REMAINING_BURST);
+        for (Process p : processes)
+            eventQueue.add(p);
+        long start = System.nanoTime();
+        for (int k = 0; k < UPDATES; k++) {
+            Process p = processes[random.nextInt(n)];
+            p.setRemainingBurstTime(random.nextInt(1_000_000));
+            eventQueue.update(p);
+        }
+        return (double) (System.nanoTime() - start) / UPDATES;
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.Scanner;
+
+public class ProcessFileParserBenchmark { // Scanner + String.split parsing vs the memory mapped parser
+    public static void main(String[] args) throws IOException {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 1024; // Size of the generated process file
+        File file = File.createTempFile("workload", ".pf");
+        file.deleteOnExit();
+        generate(file, megabytes << 20);
+        System.out.printf("%d MB process file%n", file.length() >> 20);
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT and the page cache
+            long start = System.nanoTime();
+            long scannerSum = scanner(file);
+            double scannerSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            long parserSum = parser(file);
+            double parserSeconds = (System.nanoTime() - start) / 1e9;
+            if (scannerSum != parserSum)
+                throw new IllegalStateException("Parsers disagree: " + scannerSum + " != " + parserSum);
+            if (round == 1) {
+                double size = file.length() / (double) (1 << 20);
+                System.out.printf("Scanner: %8.2f s %8.1f MB/s%n", scannerSeconds, size / scannerSeconds);
+                System.out.printf("Parser:  %8.2f s %8.1f MB/s%n", parserSeconds, size / parserSeconds);
+            }
+        }
+    }
+
+    static void generate(File file, long bytes) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            long written = 0;
+            int arrival = 0;
+            while (written < bytes) {
+                StringBuilder line = new StringBuilder().append(arrival);
+                arrival += random.nextInt(5);
+                int bursts = 1 + random.nextInt(5);
+                for (int k = 0; k < bursts; k++) {
+                    if (k > 0)
+                        line.append(" IO ").append(1 + random.nextInt(50));
+                    line.append(" CPU ").append(1 + random.nextInt(100));
+                }
+                line.append('\n');
+                writer.write(line.toString());
+                written += line.length();
+            }
+        }
+    }
+
+    static long scanner(File file) throws IOException { // Same steps as the former getProcesses and ActListToQueues
+        long sum = 0;
+        try (Scanner sc = new Scanner(file)) {
+            while (sc.hasNextLine()) {
+                String[] process = sc.nextLine().split(" ", 2);
+                sum += Integer.parseInt(process[0]);
+                String[] activityList = process[1].split(" ", 0);
+                for (int i = 0; i < activityList.length - 1; i += 2) {
+                    Process.ActivityCode code = Process.ActivityCode.valueOf(activityList[i]);
+                    sum += Integer.parseInt(activityList[i + 1]) + code.ordinal();
+                }
+            }
+        }
+        return sum;
+    }
+
+    static long parser(File file) throws IOException {
+        long sum = 0;
+        try (ProcessFileParser parser = new ProcessFileParser(file)) {
+            while (parser.nextProcess()) {
+                sum += parser.getArrivalTime();
+                int[] activities = parser.getActivities();
+                for (int k = 0; k < parser.getActivityCount(); k++)
+                    sum += ProcessTable.durationOf(activities[k]) + (ProcessTable.isIO(activities[k]) ? 1 : 0);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class StartupBenchmark { // Time to the first logged event of a fresh Driver JVM, without and with the AppCDS archive
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java StartupBenchmark <driver.jar> <app.jsa> [-runs n] [-sf vrr.sf] [-pf prof.pf]");
+            System.err.println("run from the project folder, the Driver reads schedule_files and process_files from there");
+            System.exit(1);
+        }
+        String jar = args[0];
+        String archive = args[1];
+        int runs = 20;
+        String scheduleFile = "vrr.sf";
+        String processFile = "prof.pf";
+        for (int k = 2; k < args.length; k++) {
+            switch (args[k]) {
+                case "-runs":
+                    runs = Integer.parseInt(args[++k]);
+                    break;
+                case "-sf":
+                    scheduleFile = args[++k];
+                    break;
+                case "-pf":
+                    processFile = args[++k];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[k]);
+            }
+        }
+        if (!new File(archive).isFile())
+            throw new IllegalArgumentException(archive + " not found, build it with make cds");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> driver = Arrays.asList("-Dfile.encoding=UTF-8", "-cp", jar, "Driver", scheduleFile, processFile);
+
+        System.out.println("Driver loaded from the archive: " + (loadedFromArchive(java, archive, driver) ? "yes" : "no"));
+        System.out.printf("%-10s %14s %14s %14s %14s%n", "sharing", "first event", "(min)", "exit", "(min)"); // Medians over the runs
+        String[][] variants = {
+                {"off", "-Xshare:off"}, // Every class loaded and verified from the jar and the JDK modules
+                {"jdk", "-Xshare:auto"}, // Default CDS archive of the JDK classes only
+                {"app", "-XX:SharedArchiveFile=" + archive} // JDK classes and the simulator classes mapped from the archive
+        };
+        for (int k = 0; k < 2; k++) {
+            for (String[] variant : variants)
+                launch(java, variant[1], driver); // Warm the page cache
+        }
+        long[][] firstEvent = new long[variants.length][runs];
+        long[][] exit = new long[variants.length][runs];
+        for (int k = 0; k < runs; k++) {
+            for (int v = 0; v < variants.length; v++) { // Interleaved, so a slower spell of the machine hits every variant
+                long[] times = launch(java, variants[v][1], driver);
+                firstEvent[v][k] = times[0];
+                exit[v][k] = times[1];
+            }
+        }
+        for (int v = 0; v < variants.length; v++) {
+            Arrays.sort(firstEvent[v]);
+            Arrays.sort(exit[v]);
+            System.out.printf(Locale.ROOT, "%-10s %11.2f ms %11.2f ms %11.2f ms %11.2f ms%n", variants[v][0],
+                    firstEvent[v][runs / 2] / 1e6, firstEvent[v][0] / 1e6, exit[v][runs / 2] / 1e6, exit[v][0] / 1e6);
+        }
+    }
+
+    static long[] launch(String java, String sharing, List<String> driver) throws IOException, InterruptedException { // Nanoseconds to the first event line and to the exit
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add(sharing);
+        command.addAll(driver);
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        long start = System.nanoTime();
+        java.lang.Process child = builder.start();
+        long firstEvent = -1;
+        boolean inLog = false;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (firstEvent < 0 && inLog && !line.isEmpty())
+                    firstEvent = System.nanoTime() - start; // First line of the run log after its head
+                if (line.contains("HEAD OF RUN LOG"))
+                    inLog = true;
+            }
+        }
+        if (child.waitFor() != 0)
+            throw new IllegalStateException("Driver failed with " + String.join(" ", command));
+        long exit = System.nanoTime() - start;
+        return new long[]{firstEvent < 0 ? exit : firstEvent, exit};
+    }
+
+    static boolean loadedFromArchive(String java, String archive, List<String> driver) throws IOException, InterruptedException { // A stale or mismatched archive is silently ignored by the JVM
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-XX:SharedArchiveFile=" + archive, "-Xlog:class+load=info"));
+        command.addAll(driver);
+        java.lang.Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+        boolean shared = false;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.contains(" Driver source: shared objects file"))
+                    shared = true;
+            }
+        }
+        child.waitFor();
+        return shared;
+    }
+}
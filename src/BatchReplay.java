@@ -0,0 +1,158 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchReplay { // Replays many (schedule file, process file) pairs in one JVM, every worker reusing one kernel
+    static final class Pair { // One run of the batch and its outcome
+        final String scheduleFile; // Name in schedule_files, e.g. vrr.sf
+        final String processFile; // Name in process_files, e.g. prof.pf
+        final String output; // File receiving what Driver would print for the pair
+        long nanos; // Time taken by the run
+        long events; // Events handled
+        String error; // Why the run failed, null when it finished
+
+        Pair(String scheduleFile, String processFile, String output) {
+            this.scheduleFile = scheduleFile;
+            this.processFile = processFile;
+            this.output = output;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java BatchReplay <manifest> | -dir <directory in process_files> [-sf a.sf,b.sf,...] [-threads n] [-out directory]");
+            System.err.println("manifest lines: <schedule file> <process file> [output file], # starts a comment");
+            System.exit(1);
+        }
+        String manifest = null;
+        String directory = null;
+        String[] scheduleFiles = {"fcfs.sf", "vrr.sf", "srt.sf", "hrrn.sf", "fb.sf"};
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outDirectory = "batch_out";
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "-dir":
+                    directory = args[++k];
+                    break;
+                case "-sf":
+                    scheduleFiles = args[++k].split(",");
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++k]);
+                    break;
+                case "-out":
+                    outDirectory = args[++k];
+                    break;
+                default:
+                    manifest = args[k];
+            }
+        }
+        List<Pair> pairs = manifest != null ? readManifest(manifest, outDirectory) : listDirectory(directory, scheduleFiles, outDirectory);
+        new File(outDirectory).mkdirs();
+
+        long start = System.nanoTime();
+        run(pairs, Math.max(1, Math.min(threads, pairs.size())));
+        long nanos = System.nanoTime() - start;
+
+        int failed = 0;
+        for (Pair pair : pairs) {
+            if (pair.error != null) {
+                failed++;
+                System.out.printf("%-10s %-24s FAILED %s%n", pair.scheduleFile, pair.processFile, pair.error);
+            } else
+                System.out.printf(Locale.ROOT, "%-10s %-24s %12d events %10.3f ms  %s%n", pair.scheduleFile, pair.processFile,
+                        pair.events, pair.nanos / 1e6, pair.output);
+        }
+        System.out.printf(Locale.ROOT, "%d runs, %d failed, %.3f s on %d threads%n", pairs.size(), failed, nanos / 1e9, threads);
+        if (failed > 0)
+            System.exit(1);
+    }
+
+    static List<Pair> readManifest(String manifest, String outDirectory) throws IOException {
+        List<Pair> pairs = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(manifest), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] fields = line.split("\\s+");
+            if (fields.length < 2)
+                throw new IllegalArgumentException(manifest + ": expected <schedule file> <process file> in \"" + line + "\"");
+            pairs.add(new Pair(fields[0], fields[1], fields.length > 2 ? fields[2] : outputName(outDirectory, fields[0], fields[1])));
+        }
+        return pairs;
+    }
+
+    static List<Pair> listDirectory(String directory, String[] scheduleFiles, String outDirectory) { // Every schedule file against every workload of the directory
+        String prefix = directory == null || directory.equals(".") ? "" : directory + "/";
+        File[] files = new File("process_files/" + prefix).listFiles((dir, name) -> name.endsWith(".pf") || name.endsWith(".bin"));
+        if (files == null)
+            throw new IllegalArgumentException("No directory process_files/" + prefix);
+        Arrays.sort(files);
+        List<Pair> pairs = new ArrayList<>();
+        for (String scheduleFile : scheduleFiles) {
+            for (File file : files)
+                pairs.add(new Pair(scheduleFile, prefix + file.getName(), outputName(outDirectory, scheduleFile, prefix + file.getName())));
+        }
+        return pairs;
+    }
+
+    static String outputName(String outDirectory, String scheduleFile, String processFile) {
+        return outDirectory + "/" + scheduleFile.replaceFirst("\\.sf$", "") + "-" + processFile.replace('/', '_') + ".out";
+    }
+
+    static void run(List<Pair> pairs, int threads) throws InterruptedException { // Workers take the next pair until none is left
+        AtomicInteger next = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ScheduleAlgorithm sa = null; // Kept between the runs of this worker
+                for (int k = next.getAndIncrement(); k < pairs.size(); k = next.getAndIncrement())
+                    sa = replay(pairs.get(k), sa);
+            }, "batch-replay-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+    }
+
+    static ScheduleAlgorithm replay(Pair pair, ScheduleAlgorithm sa) { // One run written to its output file, returns the kernel for the next one
+        String[] scheFile = pair.scheduleFile.split("\\.", 2);
+        String[] proFile = pair.processFile.split("\\.", 2);
+        long start = System.nanoTime();
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(pair.output), 1 << 16), false, "UTF-8")) {
+            if (scheFile.length < 2 || !scheFile[1].equalsIgnoreCase("sf"))
+                throw new IllegalArgumentException("Invalid schedule file extension");
+            if (proFile.length < 2 || !(proFile[1].equalsIgnoreCase("pf") || proFile[1].equalsIgnoreCase("bin")))
+                throw new IllegalArgumentException("Invalid process file extension");
+            Map<String, String> scheduleInfo = ScheduleAlgorithm.readScheduleFile(scheFile);
+            if (sa == null) {
+                sa = new ScheduleAlgorithm(scheduleInfo);
+                sa.exitOnFail = false;
+            }
+            sa.reset(scheduleInfo, out);
+            try {
+                sa.getProcesses(proFile);
+                if (!sa.handle(scheFile[0]))
+                    throw new IllegalArgumentException("Invalid Schedule Algorithm file name");
+                pair.events = sa.eventCount;
+            } finally {
+                sa.runLog.close(); // Whatever was logged reaches the output before it is closed
+            }
+        } catch (Exception e) {
+            pair.error = e.getMessage() == null ? e.toString() : e.getMessage();
+        }
+        pair.nanos = System.nanoTime() - start;
+        return sa;
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class BinaryProcessFile { // Binary workload format (.bin) and the converter from process files (.pf)
+    // Layout: MAGIC (int), VERSION (int), process count (long), then for each process in arrival order:
+    // varint arrival time minus previous arrival time, varint activity count,
+    // and per activity varint (duration << 1 | 1 for IO, 0 for CPU)
+    static final int MAGIC = 0x50464249; // "PFBI"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java BinaryProcessFile <input.pf> <output.bin>");
+            System.exit(1);
+        }
+        long count = convert(new File(args[0]), new File(args[1]));
+        System.out.println("Converted " + count + " processes to " + args[1]);
+    }
+
+    public static long convert(File processFile, File binaryFile) throws IOException { // Returns the number of processes
+        long count = 0;
+        try (ProcessFileParser parser = new ProcessFileParser(processFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0); // Process count, filled in at the end
+            int previousArrivalTime = 0;
+            while (parser.nextProcess()) {
+                if (parser.getArrivalTime() < previousArrivalTime)
+                    throw new IllegalArgumentException("Process file is not sorted by arrival time at line " + parser.getLine());
+                writeVarint(out, parser.getArrivalTime() - previousArrivalTime);
+                previousArrivalTime = parser.getArrivalTime();
+                int[] activities = parser.getActivities();
+                writeVarint(out, parser.getActivityCount());
+                for (int k = 0; k < parser.getActivityCount(); k++)
+                    writeVarint(out, (long) ProcessTable.durationOf(activities[k]) << 1 | (ProcessTable.isIO(activities[k]) ? 1 : 0));
+                count++;
+            }
+        }
+        try (RandomAccessFile header = new RandomAccessFile(binaryFile, "rw")) {
+            header.seek(8);
+            header.writeLong(count);
+        }
+        return count;
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException { // 7 bits per byte, low bits first
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
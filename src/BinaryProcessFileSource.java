@@ -0,0 +1,99 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+public class BinaryProcessFileSource implements ProcessSource { // Reads a binary workload (see BinaryProcessFile) while the simulation runs
+    private final String fileName; // For error messages
+    private final MappedFileInput input;
+    private final long processCount;
+    private long readCount = 0; // Processes decoded so far
+    private int arrivalTime = 0; // Arrival time of the decoded process
+    private int[] activities = new int[16]; // Packed activities of the decoded process, see ProcessTable
+    private int activityCount = 0;
+    private int id = 0; // process id starts from 1
+
+    public BinaryProcessFileSource(File file) throws IOException {
+        fileName = file.getPath();
+        input = new MappedFileInput(file);
+        if (readInt() != BinaryProcessFile.MAGIC)
+            throw new IllegalArgumentException(fileName + ": not a binary process file");
+        int version = readInt();
+        if (version != BinaryProcessFile.VERSION)
+            throw new IllegalArgumentException(fileName + ": unsupported binary process file version " + version);
+        processCount = (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+        readAhead();
+    }
+
+    public long getProcessCount() {
+        return processCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return id < readCount; // Decoded but not handed out yet
+    }
+
+    @Override
+    public int peekArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public Process next(Process.Ordering ordering) {
+        Process p = new Process(++id, arrivalTime, ordering, Arrays.copyOf(activities, activityCount), 0, activityCount);
+        readAhead();
+        return p;
+    }
+
+    @Override
+    public void close() {
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readAhead() {
+        if (readCount == processCount)
+            return;
+        try {
+            arrivalTime += (int) readVarint();
+            activityCount = (int) readVarint();
+            if (activityCount > activities.length)
+                activities = Arrays.copyOf(activities, Math.max(activityCount, activities.length * 2));
+            for (int k = 0; k < activityCount; k++) {
+                long activity = readVarint();
+                int duration = (int) (activity >>> 1);
+                activities[k] = (activity & 1) != 0 ? duration | ProcessTable.IO_FLAG : duration;
+            }
+            readCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = input.read();
+        if (b < 0)
+            throw new IllegalArgumentException(fileName + ": truncated at byte " + input.position());
+        return b;
+    }
+
+    private int readInt() throws IOException { // Big endian as written by DataOutputStream
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class BurstPredictor { // Predicts the next CPU burst of each process from its completed bursts
+    interface Estimator { // Reads the burst history kept in the process, holds no state of its own
+        String getName();
+
+        int predict(Process p); // Predicted length of the next CPU burst
+    }
+
+    static final class Ema implements Estimator { // tau(n+1) = alpha * t(n) + (1 - alpha) * tau(n)
+        private final double alpha;
+
+        Ema(double alpha) {
+            this.alpha = alpha;
+        }
+
+        @Override
+        public String getName() {
+            return "ema";
+        }
+
+        @Override
+        public int predict(Process p) {
+            return Math.round(p.getBurstEstimate());
+        }
+
+        float next(Process p, int burst) {
+            return (float) (alpha * burst + (1 - alpha) * p.getBurstEstimate());
+        }
+    }
+
+    static final class WindowMean implements Estimator { // Mean of the last bursts
+        @Override
+        public String getName() {
+            return "window";
+        }
+
+        @Override
+        public int predict(Process p) {
+            int n = Math.min(p.getBurstCount(), p.getBurstHistory().length);
+            if (n == 0)
+                return p.getInitCPUDuration();
+            long sum = 0;
+            for (int k = 0; k < n; k++)
+                sum += p.getBurstHistory()[k];
+            return (int) Math.round((double) sum / n);
+        }
+    }
+
+    static final class Median implements Estimator { // Median of the last bursts, ignores single outliers
+        @Override
+        public String getName() {
+            return "median";
+        }
+
+        @Override
+        public int predict(Process p) {
+            int n = Math.min(p.getBurstCount(), p.getBurstHistory().length);
+            if (n == 0)
+                return p.getInitCPUDuration();
+            int[] last = Arrays.copyOf(p.getBurstHistory(), n);
+            Arrays.sort(last);
+            return (n & 1) == 1 ? last[n / 2] : (last[n / 2 - 1] + last[n / 2] + 1) / 2;
+        }
+    }
+
+    final Ema ema;
+    final Estimator[] estimators; // Every estimator is scored on the same bursts
+    final Estimator active; // Estimator the scheduler uses
+    final int window; // Number of bursts kept by each process
+    final long[] absoluteError; // Sum of |predicted - actual| of each estimator
+    long predictions = 0; // Bursts scored
+
+    public BurstPredictor(String name, double alpha, int window) {
+        ema = new Ema(alpha);
+        estimators = new Estimator[]{ema, new WindowMean(), new Median()};
+        this.window = window;
+        absoluteError = new long[estimators.length];
+        Estimator chosen = null;
+        for (Estimator e : estimators) {
+            if (e.getName().equalsIgnoreCase(name))
+                chosen = e;
+        }
+        if (chosen == null)
+            throw new IllegalArgumentException("Unknown burst estimator " + name);
+        active = chosen;
+    }
+
+    public void initialize(Process p) { // First estimate is the first CPU burst, as tau(0)
+        p.setInitCPUDuration(p.peekNextActivityDuration()); // Record initial CPU duration
+        p.setBurstEstimate(p.getInitCPUDuration());
+        p.setBurstHistory(new int[window]);
+    }
+
+    public int predict(Process p) {
+        return active.predict(p);
+    }
+
+    public void record(Process p, int burst) { // Score every estimator on a completed burst, then learn from it
+        for (int i = 0; i < estimators.length; i++)
+            absoluteError[i] += Math.abs(estimators[i].predict(p) - burst);
+        predictions++;
+        p.setBurstEstimate(ema.next(p, burst));
+        p.addBurst(burst);
+    }
+
+    void writeTo(Checkpoint.Writer snapshot) throws IOException { // Scores for a checkpoint, the estimates are kept by the processes
+        snapshot.writeLongs(absoluteError, absoluteError.length);
+        snapshot.out.writeLong(predictions);
+    }
+
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        long[] errors = snapshot.readLongs();
+        System.arraycopy(errors, 0, absoluteError, 0, Math.min(errors.length, absoluteError.length));
+        predictions = snapshot.in.readLong();
+    }
+
+    public String report() { // Mean absolute prediction error of every estimator
+        StringBuilder sb = new StringBuilder("Mean burst prediction error:");
+        for (int i = 0; i < estimators.length; i++) {
+            sb.append(' ').append(estimators[i].getName()).append('=')
+                    .append(String.format(Locale.ROOT, "%.3f", predictions == 0 ? 0.0 : (double) absoluteError[i] / predictions));
+            if (estimators[i] == active)
+                sb.append(" (used)");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Checkpoint { // Periodic snapshots of a running simulation, encoded between two events and written in the background
+    // Layout: MAGIC (int), VERSION (int), schedule file entries, policy name, process file name, metrics file length,
+    // then the kernel, queue, policy, predictor, metrics and time series state (see ScheduleAlgorithm.checkpoint)
+    static final int MAGIC = 0x50464350; // "PFCP"
+    static final int VERSION = 2;
+
+    final Path path; // Snapshot file, replaced as a whole by every snapshot
+    final long interval; // Events between two snapshots
+    long nextEvent; // Event count at which the next snapshot is due
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending; // Snapshot being written, the next one waits until it is done
+
+    public Checkpoint(String path, long interval, long eventCount) {
+        this.path = Paths.get(path);
+        this.interval = interval;
+        nextEvent = eventCount + interval;
+    }
+
+    public boolean isBusy() { // The last snapshot is still being written
+        return pending != null && !pending.isDone();
+    }
+
+    public void submit(byte[] snapshot) { // Write to a temporary file and move it over the last snapshot once it is on disk
+        pending = writer.submit(() -> {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+                out.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return null;
+        });
+    }
+
+    public void close() throws Exception { // Wait for the last snapshot
+        try {
+            if (pending != null)
+                pending.get();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    static final class Writer { // Snapshot encoder, a process is written in full the first time and by index after that
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        private final IdentityHashMap<Process, Integer> indexes = new IdentityHashMap<>();
+
+        Writer() throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        void writeProcess(Process p) throws IOException {
+            if (p == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = indexes.get(p);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            out.writeInt(indexes.size());
+            indexes.put(p, indexes.size());
+            p.writeTo(out);
+        }
+
+        void writeInts(int[] values, int length) throws IOException {
+            out.writeInt(length);
+            for (int k = 0; k < length; k++)
+                out.writeInt(values[k]);
+        }
+
+        void writeLongs(long[] values, int length) throws IOException {
+            out.writeInt(length);
+            for (int k = 0; k < length; k++)
+                out.writeLong(values[k]);
+        }
+
+        void writeSettings(Map<String, String> settings) throws IOException {
+            out.writeInt(settings.size());
+            for (Map.Entry<String, String> entry : settings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        }
+
+        byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    static final class Reader implements Closeable { // Snapshot decoder, the counterpart of Writer
+        final DataInputStream in;
+        private final ArrayList<Process> read = new ArrayList<>();
+        Process.Ordering ordering = Process.Ordering.ARRIVAL; // Event queue order of the processes read, set once the policy is known
+
+        Reader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + ": not a checkpoint");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(file + ": unsupported checkpoint version " + version);
+        }
+
+        Process readProcess() throws IOException {
+            int index = in.readInt();
+            if (index < 0)
+                return null;
+            if (index < read.size())
+                return read.get(index);
+            if (index != read.size())
+                throw new IOException("Checkpoint: process " + index + " out of order");
+            Process p = Process.readFrom(in, ordering);
+            read.add(p);
+            return p;
+        }
+
+        int[] readInts() throws IOException {
+            int[] values = new int[in.readInt()];
+            for (int k = 0; k < values.length; k++)
+                values[k] = in.readInt();
+            return values;
+        }
+
+        long[] readLongs() throws IOException {
+            long[] values = new long[in.readInt()];
+            for (int k = 0; k < values.length; k++)
+                values[k] = in.readLong();
+            return values;
+        }
+
+        Map<String, String> readSettings() throws IOException {
+            Map<String, String> settings = new LinkedHashMap<>();
+            int n = in.readInt();
+            for (int k = 0; k < n; k++)
+                settings.put(in.readUTF(), in.readUTF());
+            return settings;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
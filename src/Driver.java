@@ -1,9 +1,22 @@
+import java.io.File;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 
 public class Driver {
     public static void main(String[] args) {
         try {
+            if (args[0].equals("--resume")) { // java Driver --resume <checkpoint> [key=value]...
+                Map<String, String> overrides = new HashMap<>(); // Schedule file entries changed from the checkpoint on
+                for (int k = 2; k < args.length; k++) {
+                    String[] entry = args[k].split("=", 2);
+                    overrides.put(entry[0], entry.length > 1 ? entry[1] : "");
+                }
+                ScheduleAlgorithm.resume(new File(args[1]), overrides);
+                return;
+            }
+
             // Get files from the terminal
             String[] scheFile = args[0].split("\\.", 2);
             String[] proFile = args[1].split("\\.", 2);
@@ -18,27 +31,10 @@ public class Driver {
 
             if (scheFile[1].equalsIgnoreCase("sf")) {
                 ScheduleAlgorithm sa = new ScheduleAlgorithm(scheFile);
-                if (proFile[1].equalsIgnoreCase("pf")) {
+                if (proFile[1].equalsIgnoreCase("pf") || proFile[1].equalsIgnoreCase("bin")) {
                     sa.getProcesses(proFile);
-                    switch (scheFile[0]) {
-                        case "fcfs":
-                            sa.fcfsHandler();
-                            break;
-                        case "vrr":
-                            sa.vrrHandler();
-                            break;
-                        case "srt":
-                            sa.srtHandler();
-                            break;
-                        case "hrrn":
-                            sa.hrrnHandler();
-                            break;
-                        case "fb":
-                            sa.fbHandler();
-                            break;
-                        default:
-                            System.err.println("Invalid Schedule Algorithm file name");
-                    }
+                    if (!sa.handle(scheFile[0]))
+                        System.err.println("Invalid Schedule Algorithm file name");
                 } else
                     System.err.println("Invalid process file extension");
             } else
@@ -0,0 +1,6 @@
+import java.util.Comparator;
+import java.util.Queue;
+
+public interface EventQueue<E> extends Queue<E> { // Event queue of the simulation, chosen by the "event_queue" entry of the schedule file
+    Comparator<? super E> comparator(); // Order of the elements, a kept queue is reused only for the same order
+}
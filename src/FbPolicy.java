@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.util.ArrayList;
+
+public class FbPolicy extends SchedulingPolicy {
+    int numPriorities = 1; // Number of feedback queue levels
+    RingQueue[] levels; // FIFO queue of ready processes for each level, shared by every CPU
+    LevelBitmap nonEmptyLevels; // Levels holding at least one ready process
+
+    static final class RingQueue { // FIFO ring buffer of processes, grows by doubling
+        private Process[] items = new Process[16];
+        private int head = 0;
+        private int size = 0;
+
+        void add(Process p) {
+            if (size == items.length) {
+                Process[] grown = new Process[size * 2];
+                for (int i = 0; i < size; i++)
+                    grown[i] = items[(head + i) & (items.length - 1)];
+                items = grown;
+                head = 0;
+            }
+            items[(head + size++) & (items.length - 1)] = p;
+        }
+
+        Process remove() {
+            Process p = items[head];
+            items[head] = null;
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return p;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Process get(int i) { // i-th process from the head
+            return items[(head + i) & (items.length - 1)];
+        }
+    }
+
+    static final class LevelBitmap { // Bitmap of levels, every word of a layer has one bit per non-zero word of the layer below
+        private final long[][] layers; // layers[0] has one bit per level, the last layer is a single word
+
+        LevelBitmap(int size) {
+            ArrayList<long[]> list = new ArrayList<>();
+            do {
+                size = (size + 63) >>> 6;
+                list.add(new long[size]);
+            } while (size > 1);
+            layers = list.toArray(new long[0][]);
+        }
+
+        void set(int level) {
+            for (long[] layer : layers) {
+                int word = level >>> 6;
+                layer[word] |= 1L << level;
+                level = word;
+            }
+        }
+
+        void clear(int level) {
+            for (long[] layer : layers) {
+                int word = level >>> 6;
+                layer[word] &= ~(1L << level);
+                if (layer[word] != 0)
+                    break; // Layers above still see a set bit in this word
+                level = word;
+            }
+        }
+
+        int first() { // Lowest set level or -1, one bit scan per layer
+            if (layers[layers.length - 1][0] == 0)
+                return -1;
+            int level = 0;
+            for (int k = layers.length - 1; k >= 0; k--)
+                level = (level << 6) | Long.numberOfTrailingZeros(layers[k][level]);
+            return level;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "FEEDBACK";
+    }
+
+    @Override
+    public void initialize() {
+        kernel.quantum = Integer.parseInt(kernel.scheduleInfoList.get("quantum"));
+        numPriorities = Integer.parseInt(kernel.scheduleInfoList.get("num_priorities"));
+        if (kernel.quantum < 1)
+            kernel.fail("Feedback: Invalid quantum - " + kernel.quantum);
+        if (numPriorities < 1)
+            kernel.fail("Feedback: Invalid number of priorities - " + numPriorities);
+        kernel.runLog.println("Quantum=" + kernel.quantum);
+        kernel.runLog.println("Num_priorities=" + numPriorities);
+        levels = new RingQueue[numPriorities];
+        for (int i = 0; i < numPriorities; i++)
+            levels[i] = new RingQueue();
+        nonEmptyLevels = new LevelBitmap(numPriorities);
+    }
+
+    @Override
+    public void dispatch(Process p) {
+        Process.Activity currActivity = kernel.currActivity;
+        kernel.recordStartTime(p, kernel.currentTime);
+        kernel.recordResponseTime(p, kernel.currentTime);
+
+        if (currActivity.duration > kernel.quantum) { // Preempt at the end of the quantum
+            kernel.runCpuBurst(p, kernel.quantum);
+            p.runCurrActivity(kernel.quantum); // The rest of the activity stays current for the next turn
+            p.setCurrEventCode(Process.Event.TIMEOUT);
+        } else {
+            kernel.runCpuBurst(p, currActivity.duration);
+            kernel.setBurstEndEvent(p);
+        }
+    }
+
+    @Override
+    public void onTimeout(Process p) {
+        kernel.runLog.log(RunLog.Message.PREEMPT, p.getId());
+        if (p.getPriorityLevel() < numPriorities - 1)
+            p.setPriorityLevel(p.getPriorityLevel() + 1); // Demote the process that used up its quantum
+        p.setWaitingTime(kernel.currentTime);
+        p.setCurrEventCode(Process.Event.ARRIVE);
+    }
+
+    @Override
+    public void requeue(Process p) { // Wait behind the processes of the new level instead of arriving again
+        enqueue(p);
+    }
+
+    @Override
+    public void enqueue(Process p) {
+        int level = p.getPriorityLevel();
+        levels[level].add(p);
+        nonEmptyLevels.set(level);
+        readyCount++;
+    }
+
+    @Override
+    public Process pickNext(int core) { // Head of the highest non-empty level, whichever CPU asks
+        int level = nonEmptyLevels.first();
+        Process p = levels[level].remove();
+        if (levels[level].isEmpty())
+            nonEmptyLevels.clear(level);
+        readyCount--;
+        return p;
+    }
+
+    @Override
+    void writeTo(Checkpoint.Writer snapshot) throws IOException {
+        super.writeTo(snapshot);
+        snapshot.out.writeInt(levels.length);
+        for (RingQueue level : levels) {
+            snapshot.out.writeInt(level.size());
+            for (int i = 0; i < level.size(); i++)
+                snapshot.writeProcess(level.get(i));
+        }
+    }
+
+    @Override
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        super.readFrom(snapshot);
+        if (snapshot.in.readInt() != levels.length)
+            throw new IOException("num_priorities differs from the checkpoint");
+        for (int level = 0; level < levels.length; level++) {
+            int n = snapshot.in.readInt();
+            for (int i = 0; i < n; i++) {
+                levels[level].add(snapshot.readProcess());
+                nonEmptyLevels.set(level);
+                readyCount++;
+            }
+        }
+    }
+}
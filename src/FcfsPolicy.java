@@ -0,0 +1,14 @@
+public class FcfsPolicy extends SchedulingPolicy {
+    @Override
+    public String getName() {
+        return "FCFS";
+    }
+
+    @Override
+    public void dispatch(Process p) {
+        kernel.recordStartTime(p, kernel.currentTime);
+        kernel.recordResponseTime(p, kernel.currentTime);
+        kernel.runCpuBurst(p, kernel.currActivity.duration); // Run the whole CPU activity
+        kernel.setBurstEndEvent(p);
+    }
+}
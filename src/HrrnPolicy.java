@@ -0,0 +1,48 @@
+import java.util.Queue;
+
+public class HrrnPolicy extends SchedulingPolicy {
+    @Override
+    public String getName() {
+        return "HRRN";
+    }
+
+    @Override
+    public Process.Ordering getOrdering() {
+        return Process.Ordering.RESPONSE_RATIO;
+    }
+
+    @Override
+    Queue<Process> newReadyQueue() { // Highest response ratio at the time the CPU is handed over
+        return new ResponseRatioQueue(() -> kernel.currentTime);
+    }
+
+    @Override
+    public void initialize() {
+        kernel.serviceGiven = Boolean.parseBoolean(kernel.scheduleInfoList.get("service_give"));
+        kernel.alpha = Double.parseDouble(kernel.scheduleInfoList.get("alpha"));
+        kernel.initializeTotalRemainingBurstTime(kernel.serviceGiven, kernel.alpha); // Check service and/or alpha
+    }
+
+    @Override
+    public void admit(Process p) {
+        kernel.initializeResponseRatio(p); // Get total burst time and response ratio with service and/or alpha
+    }
+
+    @Override
+    public void dispatch(Process p) {
+        Process.Activity currActivity = kernel.currActivity;
+        kernel.recordStartTime(p, kernel.currentTime);
+        kernel.recordResponseTime(p, kernel.currentTime);
+        p.calculateResponseRatio(kernel.currentTime - p.getWaitingTimestamp(), p.getRemainingBurstTime());
+
+        kernel.runCpuBurst(p, currActivity.duration);
+        p.removeRemainingBurstTime(currActivity.duration);
+        kernel.setBurstEndEvent(p);
+    }
+
+    @Override
+    public void onUnblock(Process p, int ioDuration) {
+        if (!kernel.serviceGiven)
+            p.setRemainingBurstTime(kernel.predictor.predict(p)); // Estimate updated when the last CPU burst ended
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class IndexedPriorityQueue<E extends IndexedPriorityQueue.Entry> extends AbstractQueue<E> implements EventQueue<E> { // Binary heap that can re-prioritize an element in place
+    interface Entry { // Element that remembers its slot, so it can be found without searching; in at most one queue at a time
+        int getHeapSlot(); // Slot in the queue holding the element, -1 when not queued
+
+        void setHeapSlot(int slot);
+    }
+
+    private final Comparator<? super E> comparator; // Priority order of the heap
+    private Object[] heap = new Object[16]; // Heap ordered elements
+    private int size = 0;
+
+    public IndexedPriorityQueue(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e.getHeapSlot() >= 0)
+            throw new IllegalStateException("Element is already queued");
+        if (size == heap.length)
+            heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = e;
+        siftUp(size++);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (size == 0)
+            return null;
+        E head = elementAt(0);
+        removeAt(0);
+        return head;
+    }
+
+    @Override
+    public E peek() {
+        return size == 0 ? null : elementAt(0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int slot = slotOf(o);
+        if (slot < 0)
+            return false;
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            elementAt(k).setHeapSlot(-1);
+            heap[k] = null;
+        }
+        size = 0;
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    public boolean update(E e) { // Restore the heap order after the priority of a queued element changed, O(log n)
+        int slot = slotOf(e);
+        if (slot < 0)
+            return false;
+        siftDown(siftUp(slot));
+        return true;
+    }
+
+    public void heapify() { // Restore the heap order after the priorities of many elements changed, O(n)
+        for (int k = (size >>> 1) - 1; k >= 0; k--)
+            siftDown(k);
+    }
+
+    @Override
+    public Iterator<E> iterator() { // Iterates in heap order, not in priority order
+        return new Iterator<E>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public E next() {
+                if (cursor >= size)
+                    throw new NoSuchElementException();
+                return elementAt(cursor++);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int slot) {
+        return (E) heap[slot];
+    }
+
+    private int slotOf(Object o) {
+        if (!(o instanceof Entry))
+            return -1;
+        int slot = ((Entry) o).getHeapSlot();
+        return slot >= 0 && slot < size && heap[slot] == o ? slot : -1; // The slot may belong to another queue
+    }
+
+    private void removeAt(int slot) {
+        elementAt(slot).setHeapSlot(-1);
+        int last = --size;
+        if (slot != last) {
+            move(elementAt(last), slot);
+            heap[last] = null;
+            siftDown(siftUp(slot));
+        } else
+            heap[last] = null;
+    }
+
+    private void move(E e, int slot) {
+        heap[slot] = e;
+        e.setHeapSlot(slot);
+    }
+
+    private int siftUp(int slot) {
+        E e = elementAt(slot);
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            E p = elementAt(parent);
+            if (comparator.compare(e, p) >= 0)
+                break;
+            move(p, slot);
+            slot = parent;
+        }
+        move(e, slot);
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        E e = elementAt(slot);
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(elementAt(right), elementAt(child)) < 0)
+                child = right;
+            if (comparator.compare(e, elementAt(child)) <= 0)
+                break;
+            move(elementAt(child), slot);
+            slot = child;
+        }
+        move(e, slot);
+    }
+}
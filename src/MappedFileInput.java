@@ -0,0 +1,44 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class MappedFileInput implements Closeable { // Reads a file byte by byte through memory mapped windows
+    static final long WINDOW_SIZE = 64L << 20; // Bytes mapped at a time, files may be larger than one mapping
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private long windowStart = 0; // File position of the current mapping
+    private MappedByteBuffer window;
+
+    public MappedFileInput(File file) throws IOException {
+        channel = new RandomAccessFile(file, "r").getChannel();
+        fileSize = channel.size();
+        window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_SIZE, fileSize));
+    }
+
+    public int read() throws IOException { // Next byte as 0..255 or -1 at end of file
+        if (!window.hasRemaining()) {
+            if (windowStart + window.capacity() >= fileSize)
+                return -1;
+            windowStart += window.capacity();
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, fileSize - windowStart));
+        }
+        return window.get() & 0xFF;
+    }
+
+    public void unread() { // Step back over the byte returned by the last read()
+        window.position(window.position() - 1);
+    }
+
+    public long position() {
+        return windowStart + window.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
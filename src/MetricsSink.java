@@ -0,0 +1,187 @@
+import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class MetricsSink { // Takes processes as they exit: rows to the metrics file in finish order, sums and sketches for the summary
+    private static final int STRIDE = 8; // Listing ints per process: id, arrival, start, finish, service, turnaround, normalized, response
+
+    private final String path;
+    private final BufferedWriter out; // CSV or JSON lines file of the "metrics" schedule file entry, null when not set
+    private final boolean json;
+    private final RunLog runLog;
+    private final boolean keepListing; // log=events or debug: every process is printed at the end in id order, as the original output did
+    private final boolean streamListing; // log=summary: every process is printed as it exits, so nothing is kept however long the run
+    private int[] listing = new int[0]; // Results printed by the run log at the slot of their id, floats stored as raw bits, only with keepListing
+    private int listed = 0; // End of the highest slot filled
+    long finished = 0;
+    long turnaroundSum = 0; // Exact whatever the finish order
+    final Sum normalizedSum = new Sum();
+    final Sum responseSum = new Sum();
+    final QuantileSketch turnaround = new QuantileSketch();
+    final QuantileSketch normalized = new QuantileSketch();
+    final QuantileSketch response = new QuantileSketch();
+
+    public MetricsSink(String path, RunLog runLog) throws IOException {
+        this(path, runLog, -1);
+    }
+
+    public MetricsSink(String path, RunLog runLog, long resumeLength) throws IOException { // Carry on after resumeLength bytes of the file, -1 to start a new file
+        this.path = path;
+        this.runLog = runLog;
+        keepListing = runLog.isEnabled(RunLog.Level.EVENTS);
+        streamListing = !keepListing && runLog.isEnabled(RunLog.Level.SUMMARY);
+        json = path != null && path.toLowerCase(Locale.ROOT).endsWith(".jsonl");
+        if (path != null && resumeLength >= 0) {
+            try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+                if (file.length() < resumeLength)
+                    throw new IOException(path + " is shorter than at the checkpoint");
+                file.setLength(resumeLength); // Rows written after the checkpoint are written again
+            }
+        }
+        out = path == null ? null : new BufferedWriter(new FileWriter(path, resumeLength >= 0), 1 << 16);
+        if (out != null && !json && resumeLength < 0)
+            out.write("id,arrival,start,finish,service,turnaround,normalized_turnaround,response\n");
+    }
+
+    public void record(Process p) throws IOException { // Called when a process exits, nothing of it is kept but the listing slot with keepListing
+        finished++;
+        turnaroundSum += p.getTurnaroundTime();
+        normalizedSum.add(p.getNormalizedTurnaroundTime());
+        responseSum.add(p.getAverageResponseTime());
+        turnaround.add(p.getTurnaroundTime());
+        normalized.add(p.getNormalizedTurnaroundTime());
+        response.add(p.getAverageResponseTime());
+        if (out != null)
+            writeRow(p);
+        if (keepListing)
+            list(p);
+        else if (streamListing)
+            runLog.println(Process.describe(p.getId(), p.getArrivalTime(), p.getStartTime(), p.getFinishTime(), p.getServiceTime(),
+                    p.getTurnaroundTime(), p.getNormalizedTurnaroundTime(), p.getAverageResponseTime()));
+    }
+
+    private void writeRow(Process p) throws IOException {
+        if (json) {
+            out.write("{\"id\":" + p.getId() + ",\"arrival\":" + p.getArrivalTime() + ",\"start\":" + p.getStartTime()
+                    + ",\"finish\":" + p.getFinishTime() + ",\"service\":" + p.getServiceTime()
+                    + ",\"turnaround\":" + p.getTurnaroundTime() + ",\"normalized_turnaround\":" + p.getNormalizedTurnaroundTime()
+                    + ",\"response\":" + p.getAverageResponseTime() + "}\n");
+        } else {
+            out.write(p.getId() + "," + p.getArrivalTime() + "," + p.getStartTime() + "," + p.getFinishTime() + ","
+                    + p.getServiceTime() + "," + p.getTurnaroundTime() + "," + p.getNormalizedTurnaroundTime() + ","
+                    + p.getAverageResponseTime() + "\n");
+        }
+    }
+
+    private void list(Process p) { // Ids are given in arrival order from 1, so the slots end up in id order
+        int at = (p.getId() - 1) * STRIDE;
+        if (at + STRIDE > listing.length)
+            listing = Arrays.copyOf(listing, Math.max(Math.max(listing.length * 2, STRIDE * 64), at + STRIDE));
+        listing[at] = p.getId();
+        listing[at + 1] = p.getArrivalTime();
+        listing[at + 2] = p.getStartTime();
+        listing[at + 3] = p.getFinishTime();
+        listing[at + 4] = p.getServiceTime();
+        listing[at + 5] = p.getTurnaroundTime();
+        listing[at + 6] = Float.floatToRawIntBits(p.getNormalizedTurnaroundTime());
+        listing[at + 7] = Float.floatToRawIntBits(p.getAverageResponseTime());
+        listed = Math.max(listed, at + STRIDE);
+    }
+
+    public long flush() throws IOException { // Length of the metrics file with every row fed so far, -1 without a file
+        if (out == null)
+            return -1;
+        out.flush();
+        return new File(path).length();
+    }
+
+    void writeTo(Checkpoint.Writer snapshot) throws IOException { // State for a checkpoint, the file is flushed first
+        snapshot.out.writeLong(finished);
+        snapshot.out.writeLong(turnaroundSum);
+        normalizedSum.writeTo(snapshot.out);
+        responseSum.writeTo(snapshot.out);
+        turnaround.writeTo(snapshot.out);
+        normalized.writeTo(snapshot.out);
+        response.writeTo(snapshot.out);
+        snapshot.writeInts(listing, listed);
+    }
+
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        finished = snapshot.in.readLong();
+        turnaroundSum = snapshot.in.readLong();
+        normalizedSum.readFrom(snapshot.in);
+        responseSum.readFrom(snapshot.in);
+        turnaround.readFrom(snapshot.in);
+        normalized.readFrom(snapshot.in);
+        response.readFrom(snapshot.in);
+        listing = snapshot.readInts();
+        if (!keepListing)
+            listing = new int[0]; // The resumed run does not print the listing
+        listed = listing.length;
+    }
+
+    public void printListing(RunLog runLog) {
+        for (int k = 0; k < listed; k += STRIDE) {
+            if (listing[k] == 0)
+                continue; // Slot of a process that has not exited
+            runLog.println(Process.describe(listing[k], listing[k + 1], listing[k + 2], listing[k + 3], listing[k + 4], listing[k + 5],
+                    Float.intBitsToFloat(listing[k + 6]), Float.intBitsToFloat(listing[k + 7])));
+        }
+    }
+
+    public void printPercentiles(RunLog runLog) {
+        runLog.println("Turnaround: " + turnaround);
+        runLog.println("Normalized Turnaround: " + normalized);
+        runLog.println("Average Response Time: " + response);
+    }
+
+    public void close() throws IOException { // Write the aggregates and close the metrics file
+        if (out == null)
+            return;
+        if (json) {
+            out.write("{\"summary\":{\"processes\":" + finished
+                    + ",\"turnaround\":" + toJson(turnaround)
+                    + ",\"normalized_turnaround\":" + toJson(normalized)
+                    + ",\"response\":" + toJson(response) + "}}\n");
+        }
+        out.close();
+    }
+
+    static final class Sum { // Neumaier compensated sum, the rounding of the total no longer depends on the order processes finish in
+        private double sum = 0;
+        private double error = 0; // Low order bits lost by sum
+
+        void add(double x) {
+            double t = sum + x;
+            error += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+            sum = t;
+        }
+
+        double value() {
+            return sum + error;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeDouble(sum);
+            out.writeDouble(error);
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            sum = in.readDouble();
+            error = in.readDouble();
+        }
+    }
+
+    static String toJson(QuantileSketch sketch) {
+        if (sketch.getCount() == 0)
+            return "null";
+        return String.format(Locale.ROOT, "{\"mean\":%s,\"min\":%s,\"max\":%s,\"p50\":%s,\"p95\":%s,\"p99\":%s}",
+                sketch.getMean(), sketch.getMin(), sketch.getMax(), sketch.quantile(0.50), sketch.quantile(0.95), sketch.quantile(0.99));
+    }
+}
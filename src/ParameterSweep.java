@@ -0,0 +1,98 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParameterSweep { // Runs every combination of a parameter grid against one workload in parallel
+    static final String[] DEFAULT_GRID = {
+            "fcfs",
+            "vrr:quantum=1..50",
+            "srt:alpha=0.1..0.9:0.1,service_give=true|false",
+            "hrrn:alpha=0.1..0.9:0.1,service_give=true|false",
+            "feedback:quantum=1..10,num_priorities=1..4"
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java ParameterSweep <process file> [algorithm[:key=values[,key=values]...]]...");
+            System.err.println("values are a list v1|v2|... or a range from..to[:step]");
+            System.exit(1);
+        }
+        ProcessTable workload = ProcessTable.load(new File("process_files/" + args[0])); // Parsed once, shared by every run
+        List<Map<String, String>> grid = new ArrayList<>();
+        for (String spec : args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : DEFAULT_GRID)
+            expand(spec, grid);
+
+        ExecutorService pool = Executors.newWorkStealingPool();
+        List<Future<ScheduleAlgorithm>> runs = new ArrayList<>();
+        for (Map<String, String> settings : grid)
+            runs.add(pool.submit(() -> simulate(settings, workload)));
+
+        System.out.printf("%-8s %-32s %8s %12s %12s %12s%n", "name", "parameters", "finish", "turnaround", "normalized", "response");
+        for (int k = 0; k < grid.size(); k++) {
+            ScheduleAlgorithm sa = runs.get(k).get();
+            Map<String, String> parameters = new LinkedHashMap<>(grid.get(k));
+            String name = parameters.remove("name");
+            parameters.remove("log");
+            System.out.printf(Locale.ROOT, "%-8s %-32s %8d %12.3f %12.3f %12.3f%n", name, parameters.toString(),
+                    sa.currentTime, sa.meanTurnaroundTime, sa.meanNormalizedTurnaroundTime, sa.meanAvgResTime);
+        }
+        pool.shutdown();
+    }
+
+    static ScheduleAlgorithm simulate(Map<String, String> settings, ProcessTable workload) { // One isolated simulation
+        ScheduleAlgorithm sa = new ScheduleAlgorithm(settings);
+        sa.shareProcesses(workload);
+        sa.simulate(SchedulingPolicy.forName(settings.get("name")));
+        return sa;
+    }
+
+    static void expand(String spec, List<Map<String, String>> grid) { // Adds every combination of one algorithm spec
+        String[] parts = spec.split(":", 2);
+        List<Map<String, String>> combinations = new ArrayList<>();
+        Map<String, String> base = new LinkedHashMap<>();
+        base.put("name", parts[0].toUpperCase());
+        base.put("log", "off");
+        combinations.add(base);
+        if (parts.length > 1) {
+            for (String parameter : parts[1].split(",")) {
+                String[] entry = parameter.split("=", 2);
+                List<Map<String, String>> next = new ArrayList<>();
+                for (Map<String, String> combination : combinations) {
+                    for (String value : values(entry[1])) {
+                        Map<String, String> settings = new LinkedHashMap<>(combination);
+                        settings.put(entry[0], value);
+                        next.add(settings);
+                    }
+                }
+                combinations = next;
+            }
+        }
+        grid.addAll(combinations);
+    }
+
+    static List<String> values(String spec) { // v1|v2|... or from..to[:step]
+        if (!spec.contains(".."))
+            return Arrays.asList(spec.split("\\|"));
+        String[] range = spec.split("\\.\\.|:");
+        List<String> values = new ArrayList<>();
+        if (!range[0].contains(".") && !range[1].contains(".")) { // Integer range
+            int step = range.length > 2 ? Integer.parseInt(range[2]) : 1;
+            for (int v = Integer.parseInt(range[0]); v <= Integer.parseInt(range[1]); v += step)
+                values.add(Integer.toString(v));
+        } else {
+            double from = Double.parseDouble(range[0]);
+            double to = Double.parseDouble(range[1]);
+            double step = range.length > 2 ? Double.parseDouble(range[2]) : 0.1;
+            for (int k = 0; from + k * step <= to + step / 2; k++)
+                values.add(String.format(Locale.ROOT, "%.4g", from + k * step).replaceAll("\\.?0+$", ""));
+        }
+        return values;
+    }
+}
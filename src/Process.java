@@ -1,8 +1,9 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Comparator;
-import java.util.Deque;
-import java.util.LinkedList;
 
-public class Process implements Comparable<Process> {
+public class Process implements Comparable<Process>, IndexedPriorityQueue.Entry {
     private final int id; // Process id
     private int timeStamp; // Timestamp of the process
     private final int arrivalTime; // The time the process is loaded
@@ -16,20 +17,66 @@ public class Process implements Comparable<Process> {
     private float normalizedTurnaroundTime; // (turnaround/service)
     private float averageResponseTime; // Average waiting times divided number of wait-for-CPU activity
     private float responseRatio; // Response ration between waiting time and service time
-    private final String scheduleAlgorithm; // Name of currently running scheduling algorithm
-    private Activity currActivity; // Current activity with code and duration of the process
+    private int priorityLevel; // Feedback queue level, 0 is the highest priority
+    private float burstEstimate; // Exponential average of the CPU bursts, see BurstPredictor
+    private int[] burstHistory; // Last CPU bursts in a ring, see BurstPredictor
+    private int burstCount; // Number of CPU bursts completed
+    private final Ordering ordering; // Priority order of the currently running scheduling algorithm
+    private final Activity currActivity = new Activity(); // Current activity with code and duration left of the process
     private Event currEventCode; // Current event code of the process
-    Deque<Activity> activityQueue = new LinkedList<>(); // Holds activities of the process
+    private int[] activities; // Packed activities, see ProcessTable; shared by every simulation of a workload, never written
+    private int activityEnd; // Index past the last activity of the process
+    private int nextActivity; // Cursor of the next activity in activities
+    private static final int[] NO_ACTIVITIES = new int[0];
     int waitForCpuCount = 0; // Number of times the process has to wait for CPU access
+    private int heapSlot = -1; // Slot in the event or ready queue holding the process, -1 when not queued
+    private int core = -1; // CPU the process runs or last ran on, -1 before its first dispatch
 
     @Override
     public int compareTo(Process o) { // Helper function for Priority queue
-        if (scheduleAlgorithm.matches("FCFS|VRR"))
-            return Comparator.comparing(Process::getTimeStamp).thenComparing(Process::getEventComp).thenComparing(Process::getId).compare(this, o);
-        else if (scheduleAlgorithm.matches("SRT"))
-            return Comparator.comparing(Process::getTimeStamp).thenComparing(Process::getEventComp).thenComparing(Process::getRemainingBurstTime).thenComparing(Process::getId).compare(this, o);
-        else
-            return Comparator.comparing(Process::getTimeStamp).thenComparing(Process::getEventComp).thenComparing(Comparator.comparing(Process::getResponseRatio).reversed()).thenComparing(Process::getId).compare(this, o);
+        return ordering.compare(this, o);
+    }
+
+    enum Ordering implements Comparator<Process> { // Priority orders resolved once per run, compared on primitive fields
+        ARRIVAL { // FCFS, VRR: time stamp, event, id
+            @Override
+            public int compare(Process a, Process b) {
+                int c = compareTimeAndEvent(a, b);
+                return c != 0 ? c : Integer.compare(a.id, b.id);
+            }
+        },
+        REMAINING_BURST { // SRT: time stamp, event, shortest remaining burst, id
+            @Override
+            public int compare(Process a, Process b) {
+                int c = compareTimeAndEvent(a, b);
+                if (c == 0)
+                    c = Integer.compare(a.remainingBurstTime, b.remainingBurstTime);
+                return c != 0 ? c : Integer.compare(a.id, b.id);
+            }
+        },
+        SHORTEST_REMAINING { // SRT ready queue: shortest remaining burst, time stamp, id
+            @Override
+            public int compare(Process a, Process b) {
+                int c = Integer.compare(a.remainingBurstTime, b.remainingBurstTime);
+                if (c == 0)
+                    c = Integer.compare(a.timeStamp, b.timeStamp);
+                return c != 0 ? c : Integer.compare(a.id, b.id);
+            }
+        },
+        RESPONSE_RATIO { // HRRN: time stamp, event, highest response ratio, id
+            @Override
+            public int compare(Process a, Process b) {
+                int c = compareTimeAndEvent(a, b);
+                if (c == 0)
+                    c = Float.compare(b.responseRatio, a.responseRatio);
+                return c != 0 ? c : Integer.compare(a.id, b.id);
+            }
+        };
+
+        static int compareTimeAndEvent(Process a, Process b) {
+            int c = Integer.compare(a.timeStamp, b.timeStamp);
+            return c != 0 ? c : Integer.compare(a.getEventComp(), b.getEventComp());
+        }
     }
 
     static class Activity { // Class of Activity
@@ -50,9 +97,21 @@ public class Process implements Comparable<Process> {
         TIMEOUT // The Process is currently running on the cpu and will timeout when this event happens
     }
 
-    public Process(int id, int arrivalTime, String scheduleAlgorithm, String activities) {
+    public Process(int id, int arrivalTime, Ordering ordering, String activities) {
+        this(id, arrivalTime, ordering, ActListToArray(activities.split(" ", 0)));
+    }
+
+    private Process(int id, int arrivalTime, Ordering ordering, int[] activities) {
+        this(id, arrivalTime, ordering, activities, 0, activities.length);
+    }
+
+    public Process(ProcessTable table, int row, Ordering ordering) { // Reads the activities from the table without copying
+        this(row + 1, table.getArrivalTime(row), ordering, table.getActivities(), table.getActivityStart(row), table.getActivityEnd(row));
+    }
+
+    public Process(int id, int arrivalTime, Ordering ordering, int[] activities, int from, int to) { // Packed activities[from..to), see ProcessTable
         this.id = id;
-        this.scheduleAlgorithm = scheduleAlgorithm;
+        this.ordering = ordering;
         this.timeStamp = arrivalTime;
         this.arrivalTime = arrivalTime;
         this.serviceTime = 0;
@@ -63,24 +122,125 @@ public class Process implements Comparable<Process> {
         this.waitingTimestamp = -1;
         this.remainingBurstTime = 0;
         this.responseRatio = 0;
-        this.currActivity = new Activity();
-        ActListToQueues(activities.split(" ", 0));
-    }
-
-    public void ActListToQueues(String[] activityList) {
-        Activity input = new Activity();
+        this.activities = activities;
+        this.nextActivity = from;
+        this.activityEnd = to;
+    }
+
+    public void release() { // Drop the activities and burst history once the process exits, only its results are read after that
+        activities = NO_ACTIVITIES;
+        nextActivity = 0;
+        activityEnd = 0;
+        burstHistory = null;
+    }
+
+    void writeTo(DataOutput out) throws IOException { // Whole state of the process for a checkpoint, see Checkpoint
+        out.writeInt(id);
+        out.writeInt(arrivalTime);
+        out.writeInt(timeStamp);
+        out.writeInt(serviceTime);
+        out.writeInt(startTime);
+        out.writeInt(finishTime);
+        out.writeInt(turnaroundTime);
+        out.writeInt(waitingTimestamp);
+        out.writeInt(initCPUDuration);
+        out.writeInt(remainingBurstTime);
+        out.writeFloat(normalizedTurnaroundTime);
+        out.writeFloat(averageResponseTime);
+        out.writeFloat(responseRatio);
+        out.writeInt(priorityLevel);
+        out.writeFloat(burstEstimate);
+        out.writeInt(burstHistory == null ? -1 : burstHistory.length);
+        if (burstHistory != null)
+            for (int burst : burstHistory)
+                out.writeInt(burst);
+        out.writeInt(burstCount);
+        out.writeByte(currActivity.code == null ? -1 : currActivity.code.ordinal());
+        out.writeInt(currActivity.duration);
+        out.writeByte(currEventCode == null ? -1 : currEventCode.ordinal());
+        out.writeInt(waitForCpuCount);
+        out.writeInt(core);
+        out.writeInt(nextActivity == 0 ? -1 : activities[nextActivity - 1]); // Current activity as read, for getCurrActivityLength()
+        out.writeInt(activityEnd - nextActivity); // Activities not started yet
+        for (int k = nextActivity; k < activityEnd; k++)
+            out.writeInt(activities[k]);
+    }
+
+    static Process readFrom(DataInput in, Ordering ordering) throws IOException { // Counterpart of writeTo
+        int id = in.readInt();
+        int arrivalTime = in.readInt();
+        Process p = new Process(id, arrivalTime, ordering, NO_ACTIVITIES, 0, 0);
+        p.timeStamp = in.readInt();
+        p.serviceTime = in.readInt();
+        p.startTime = in.readInt();
+        p.finishTime = in.readInt();
+        p.turnaroundTime = in.readInt();
+        p.waitingTimestamp = in.readInt();
+        p.initCPUDuration = in.readInt();
+        p.remainingBurstTime = in.readInt();
+        p.normalizedTurnaroundTime = in.readFloat();
+        p.averageResponseTime = in.readFloat();
+        p.responseRatio = in.readFloat();
+        p.priorityLevel = in.readInt();
+        p.burstEstimate = in.readFloat();
+        int history = in.readInt();
+        if (history >= 0) {
+            p.burstHistory = new int[history];
+            for (int k = 0; k < history; k++)
+                p.burstHistory[k] = in.readInt();
+        }
+        p.burstCount = in.readInt();
+        int code = in.readByte();
+        p.currActivity.code = code < 0 ? null : ActivityCode.values()[code];
+        p.currActivity.duration = in.readInt();
+        int event = in.readByte();
+        p.currEventCode = event < 0 ? null : Event.values()[event];
+        p.waitForCpuCount = in.readInt();
+        p.core = in.readInt();
+        int current = in.readInt();
+        int left = in.readInt();
+        int from = current == -1 ? 0 : 1; // The current activity is kept in front of the ones left
+        p.activities = new int[from + left];
+        if (from == 1)
+            p.activities[0] = current;
+        for (int k = 0; k < left; k++)
+            p.activities[from + k] = in.readInt();
+        p.nextActivity = from;
+        p.activityEnd = p.activities.length;
+        return p;
+    }
+
+    static int[] ActListToArray(String[] activityList) {
+        int[] packed = new int[activityList.length / 2];
         for (int i = 0; i < activityList.length - 1; i += 2) {
-            input.code = ActivityCode.valueOf(activityList[i]);
-            input.duration = Integer.parseInt(activityList[i + 1]);
-            activityQueue.addLast(input);
-            input = new Activity();
+            int duration = Integer.parseInt(activityList[i + 1]);
+            packed[i / 2] = ActivityCode.valueOf(activityList[i]) == ActivityCode.IO ? duration | ProcessTable.IO_FLAG : duration;
         }
+        return packed;
     }
 
     public int getId() {
         return id;
     }
 
+    @Override
+    public int getHeapSlot() {
+        return heapSlot;
+    }
+
+    @Override
+    public void setHeapSlot(int slot) {
+        heapSlot = slot;
+    }
+
+    public int getCore() {
+        return core;
+    }
+
+    public void setCore(int core) {
+        this.core = core;
+    }
+
     public int getArrivalTime() {
         return arrivalTime;
     }
@@ -93,6 +253,10 @@ public class Process implements Comparable<Process> {
         this.timeStamp = timeStamp;
     }
 
+    public int getServiceTime() {
+        return serviceTime;
+    }
+
     public void addServiceTime(int serviceTime) {
         this.serviceTime += serviceTime;
     }
@@ -105,6 +269,10 @@ public class Process implements Comparable<Process> {
         this.startTime = startTime;
     }
 
+    public int getFinishTime() {
+        return finishTime;
+    }
+
     public void setFinishTime(int finishTime) {
         this.finishTime = finishTime;
     }
@@ -121,12 +289,11 @@ public class Process implements Comparable<Process> {
         return this.normalizedTurnaroundTime;
     }
 
-    public void setNormalizedTurnaroundTime() {
-        if (this.serviceTime == 0) {
-            System.err.println("\nnormalizedTurnaroundTime: Process " + this.id + "'s \"serviceTime\" must be non-zero!\n");
-        } else {
-            this.normalizedTurnaroundTime = ((float) this.turnaroundTime / this.serviceTime);
-        }
+    public boolean setNormalizedTurnaroundTime() { // False when the service time is 0, the kernel reports it
+        if (this.serviceTime == 0)
+            return false;
+        this.normalizedTurnaroundTime = ((float) this.turnaroundTime / this.serviceTime);
+        return true;
     }
 
     public float getAverageResponseTime() {
@@ -177,25 +344,57 @@ public class Process implements Comparable<Process> {
 
     public float getResponseRatio() { return responseRatio; }
 
+    public int getPriorityLevel() { return priorityLevel; }
+
+    public float getBurstEstimate() { return burstEstimate; }
+
+    public void setBurstEstimate(float burstEstimate) { this.burstEstimate = burstEstimate; }
+
+    public int[] getBurstHistory() { return burstHistory; }
+
+    public void setBurstHistory(int[] burstHistory) { this.burstHistory = burstHistory; }
+
+    public int getBurstCount() { return burstCount; }
+
+    public void addBurst(int burst) { // Keep the last bursts, oldest overwritten first
+        burstHistory[burstCount++ % burstHistory.length] = burst;
+    }
+
+    public void setPriorityLevel(int priorityLevel) { this.priorityLevel = priorityLevel; }
+
     public void calculateResponseRatio(int wait, int serviceTime) {
         if (wait >= 0)
             this.responseRatio = ((float) wait / serviceTime + 1);
     }
 
-    public void getNextCurrActivity() {
-        if (!(activityQueue.isEmpty())) {
-            this.currActivity = activityQueue.removeFirst();
-        } else
-            System.out.println("Warning: unable to update CurrentActivity." +
-                    "\nCause: empty Activity Queues.");
+    public boolean getNextCurrActivity() { // False when no activity is left, the kernel reports it
+        if (nextActivity >= activityEnd)
+            return false;
+        int activity = activities[nextActivity++];
+        currActivity.code = ProcessTable.isIO(activity) ? ActivityCode.IO : ActivityCode.CPU;
+        currActivity.duration = ProcessTable.durationOf(activity);
+        return true;
+    }
+
+    public int peekNextActivityDuration() {
+        return ProcessTable.durationOf(activities[nextActivity]);
     }
 
-    public Activity peakActivityQueue() {
-        return activityQueue.peek();
+    public int getCurrActivityLength() { // Full duration of the current activity, not only what is left
+        return ProcessTable.durationOf(activities[nextActivity - 1]);
     }
 
-    public void updateActivityQueueHead(Activity activity) {
-        activityQueue.addFirst(activity);
+    public int sumNextCpuDurations() { // Total duration of the CPU activities not started yet
+        int sum = 0;
+        for (int k = nextActivity; k < activityEnd; k++) {
+            if (!ProcessTable.isIO(activities[k]))
+                sum += ProcessTable.durationOf(activities[k]);
+        }
+        return sum;
+    }
+
+    public void runCurrActivity(int duration) { // Part of the current activity is done, the rest stays current
+        currActivity.duration -= duration;
     }
 
     public Activity getCurrActivity() {
@@ -211,7 +410,7 @@ public class Process implements Comparable<Process> {
     }
 
     public boolean eventIsLast() {
-        return activityQueue.isEmpty();
+        return nextActivity == activityEnd;
     }
 
     public int getEventComp() {
@@ -225,6 +424,11 @@ public class Process implements Comparable<Process> {
 
     @Override
     public String toString() {
+        return describe(id, arrivalTime, startTime, finishTime, serviceTime, turnaroundTime, normalizedTurnaroundTime, averageResponseTime);
+    }
+
+    static String describe(int id, int arrivalTime, int startTime, int finishTime, int serviceTime, int turnaroundTime,
+                           float normalizedTurnaroundTime, float averageResponseTime) { // Result line of a finished process
         return "Process " + id + ": {" +
                 "arrivalTime=" + arrivalTime +
                 ", startTime=" + startTime +
@@ -0,0 +1,129 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ProcessFileParser implements Closeable { // Parses a process file straight from a memory mapped buffer
+    private final String fileName; // For error messages
+    private final MappedFileInput input;
+    private int line = 1; // Position of the next byte, for error messages
+    private int column = 1;
+    private int processLine = 0; // Line of the last parsed process
+    private int arrivalTime; // Arrival time of the last parsed process
+    private int[] activities = new int[16]; // Packed activities of the last parsed process, see ProcessTable
+    private int activityCount = 0;
+
+    public ProcessFileParser(File file) throws IOException {
+        fileName = file.getPath();
+        input = new MappedFileInput(file);
+    }
+
+    public boolean nextProcess() throws IOException { // Parse the next line, false at end of file
+        int b = skipBlank();
+        while (b == '\n') { // Skip empty lines
+            b = skipBlank();
+        }
+        if (b < 0)
+            return false;
+        processLine = line;
+        arrivalTime = readNumber(b);
+        activityCount = 0;
+        for (b = skipBlank(); b >= 0 && b != '\n'; b = skipBlank()) {
+            boolean io = readCode(b);
+            int duration = readNumber(skipBlank());
+            if (activityCount == activities.length)
+                activities = Arrays.copyOf(activities, activityCount * 2);
+            activities[activityCount++] = io ? duration | ProcessTable.IO_FLAG : duration;
+        }
+        if (activityCount == 0)
+            throw error(processLine, column, "process has no activity");
+        return true;
+    }
+
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public int[] getActivities() { // Only the first getActivityCount() entries belong to the last process
+        return activities;
+    }
+
+    public int getActivityCount() {
+        return activityCount;
+    }
+
+    public int getLine() { // Line of the last parsed process
+        return processLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private int read() throws IOException { // Next byte or -1 at end of file
+        int b = input.read();
+        if (b < 0)
+            return b;
+        if (b == '\n') {
+            line++;
+            column = 1;
+        } else
+            column++;
+        return b;
+    }
+
+    private int skipBlank() throws IOException { // Next byte that is not a space, tab or carriage return
+        int b = read();
+        while (b == ' ' || b == '\t' || b == '\r')
+            b = read();
+        return b;
+    }
+
+    private int readNumber(int b) throws IOException { // Reads the digits starting with b up to the next separator
+        if (b < '0' || b > '9')
+            throw error(line, column - 1, "expected a number");
+        int value = 0;
+        while (b >= '0' && b <= '9') {
+            if (value > (Integer.MAX_VALUE - (b - '0')) / 10)
+                throw error(line, column - 1, "number is too large");
+            value = value * 10 + (b - '0');
+            b = read();
+        }
+        endOfToken(b);
+        return value;
+    }
+
+    private boolean readCode(int b) throws IOException { // Reads CPU or IO starting with b, true for IO
+        int startLine = line;
+        int startColumn = column - 1;
+        boolean io;
+        if (b == 'C' && read() == 'P' && read() == 'U')
+            io = false;
+        else if (b == 'I' && read() == 'O')
+            io = true;
+        else
+            throw error(startLine, startColumn, "expected CPU or IO");
+        int next = read();
+        if (next == '\n' || next == '\r' || next < 0)
+            throw error(startLine, startColumn, "expected a duration after " + (io ? "IO" : "CPU"));
+        if (next != ' ' && next != '\t')
+            throw error(startLine, startColumn, "expected CPU or IO");
+        return io;
+    }
+
+    private void endOfToken(int b) throws IOException { // A token has to be followed by a separator
+        if (b == ' ' || b == '\t' || b == '\r' || b < 0)
+            return;
+        if (b == '\n') { // Leave the new line for the caller
+            input.unread();
+            line--;
+            return;
+        }
+        throw error(line, column - 1, "unexpected character '" + (char) b + "'");
+    }
+
+    private IllegalArgumentException error(int errorLine, int errorColumn, String message) {
+        return new IllegalArgumentException(fileName + ":" + errorLine + ":" + errorColumn + ": " + message);
+    }
+}
@@ -0,0 +1,58 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+public class ProcessFileSource implements ProcessSource { // Reads a process file one line at a time while the simulation runs
+    private final ProcessFileParser parser;
+    private boolean pending; // Whether the parser holds the next process
+    private int pendingArrivalTime;
+    private int id = 0; // process id starts from 1
+
+    public ProcessFileSource(File fileName) throws IOException {
+        parser = new ProcessFileParser(fileName);
+        readAhead();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending;
+    }
+
+    @Override
+    public int peekArrivalTime() {
+        return pendingArrivalTime;
+    }
+
+    @Override
+    public Process next(Process.Ordering ordering) {
+        Process p = new Process(++id, pendingArrivalTime, ordering, Arrays.copyOf(parser.getActivities(), parser.getActivityCount()), 0, parser.getActivityCount());
+        readAhead();
+        return p;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readAhead() {
+        try {
+            int previousArrivalTime = pending ? pendingArrivalTime : Integer.MIN_VALUE;
+            pending = parser.nextProcess();
+            if (!pending) {
+                parser.close();
+                return;
+            }
+            pendingArrivalTime = parser.getArrivalTime();
+            if (pendingArrivalTime < previousArrivalTime)
+                throw new IllegalArgumentException("Process file is not sorted by arrival time at line " + parser.getLine());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+public interface ProcessSource { // Supplies processes to the simulation in arrival order
+    boolean hasNext();
+
+    int peekArrivalTime(); // Arrival time of the next process
+
+    Process next(Process.Ordering ordering); // Builds the next process
+
+    default void skip(long count) { // Pass over processes that already arrived, when resuming from a checkpoint
+        for (long k = 0; k < count && hasNext(); k++)
+            next(Process.Ordering.ARRIVAL);
+    }
+
+    default void close() {
+    }
+}
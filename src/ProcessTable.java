@@ -0,0 +1,77 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ProcessTable { // Compact column store of a workload, one row per process (row = id - 1)
+    static final int IO_FLAG = Integer.MIN_VALUE; // Sign bit marks an IO activity, the other bits hold the duration
+
+    private int size = 0; // Number of processes
+    private int[] arrivalTime = new int[16]; // The time the process is loaded
+    private int[] activityOffset = new int[17]; // Activities of row r are activities[activityOffset[r] .. activityOffset[r + 1])
+    private int[] activities = new int[64]; // Packed activities of every process
+    private int activityCount = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public int addProcess(int arrival) { // Open a new row, the following activities belong to it
+        if (size == arrivalTime.length) {
+            int capacity = size * 2;
+            arrivalTime = Arrays.copyOf(arrivalTime, capacity);
+            activityOffset = Arrays.copyOf(activityOffset, capacity + 1);
+        }
+        arrivalTime[size] = arrival;
+        activityOffset[size] = activityCount;
+        activityOffset[size + 1] = activityCount;
+        return size++;
+    }
+
+    public void addActivity(Process.ActivityCode code, int duration) { // Append an activity to the last row
+        if (activityCount == activities.length)
+            activities = Arrays.copyOf(activities, activityCount * 2);
+        activities[activityCount++] = code == Process.ActivityCode.IO ? duration | IO_FLAG : duration;
+        activityOffset[size] = activityCount;
+    }
+
+    public static ProcessTable load(File processFile) throws IOException { // Read a whole process file into memory
+        ProcessTable table = new ProcessTable();
+        try (ProcessFileParser parser = new ProcessFileParser(processFile)) {
+            while (parser.nextProcess()) {
+                table.addProcess(parser.getArrivalTime());
+                int[] activities = parser.getActivities();
+                for (int k = 0; k < parser.getActivityCount(); k++)
+                    table.addActivity(isIO(activities[k]) ? Process.ActivityCode.IO : Process.ActivityCode.CPU, durationOf(activities[k]));
+            }
+        }
+        return table;
+    }
+
+    public int getArrivalTime(int row) {
+        return arrivalTime[row];
+    }
+
+    public int getActivityStart(int row) { // Index of the first activity of the row
+        return activityOffset[row];
+    }
+
+    public int getActivityEnd(int row) { // Index past the last activity of the row
+        return activityOffset[row + 1];
+    }
+
+    public static boolean isIO(int activity) {
+        return activity < 0;
+    }
+
+    public static int durationOf(int activity) {
+        return activity & Integer.MAX_VALUE;
+    }
+
+    public int[] getActivities() { // Packed activities of every row, must not be written
+        return activities;
+    }
+
+    public int getActivity(int index) { // Packed activity, decode with isIO() and durationOf()
+        return activities[index];
+    }
+}
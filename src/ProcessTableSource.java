@@ -0,0 +1,25 @@
+public class ProcessTableSource implements ProcessSource { // Feeds the simulation from a workload already loaded in memory, the table is left unchanged
+    private final ProcessTable table;
+    private int row = 0; // Next row to arrive
+
+    public ProcessTableSource(ProcessTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return row < table.size();
+    }
+
+    @Override
+    public int peekArrivalTime() {
+        return table.getArrivalTime(row);
+    }
+
+    @Override
+    public Process next(Process.Ordering ordering) {
+        if (row > 0 && table.getArrivalTime(row) < table.getArrivalTime(row - 1))
+            throw new IllegalArgumentException("Process table is not sorted by arrival time at row " + row);
+        return new Process(table, row++, ordering);
+    }
+}
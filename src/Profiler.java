@@ -0,0 +1,187 @@
+import java.util.AbstractQueue;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+public class Profiler { // Hot path counters of the event loop, on with the "profile" schedule file entry, null otherwise
+    static final int BUCKETS = 64; // Histogram bucket k counts times below 2^k nanoseconds
+
+    final int interval; // One event in interval is timed
+    private int countdown; // Events left before the next timed one
+    private final Process.Event[] kinds = Process.Event.values();
+    final LongAdder[] events = adders(kinds.length); // Events handled, by kind
+    final LongAdder[] timed = adders(kinds.length); // Events timed, by kind
+    final LongAdder[] nanos = adders(kinds.length); // Time of the timed events, by kind
+    final LongAdder[][] histogram = new LongAdder[kinds.length][]; // Log2 buckets of the timed events, by kind
+    final LongAdder[] handOffs = adders(kinds.length); // Ready processes given a CPU, by the event freeing it
+    final LongAdder enqueued = new LongAdder(); // Processes put in a ready queue while every CPU is busy
+    final LongAdder requeued = new LongAdder(); // Preempted processes given back to the policy
+    final LongAdder offers = new LongAdder(); // Event queue operations, counted by ProfiledEventQueue
+    final LongAdder polls = new LongAdder();
+
+    public Profiler(int interval) {
+        this.interval = interval;
+        countdown = interval;
+        for (int k = 0; k < kinds.length; k++)
+            histogram[k] = adders(BUCKETS);
+    }
+
+    static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int k = 0; k < n; k++)
+            adders[k] = new LongAdder();
+        return adders;
+    }
+
+    public boolean sample() { // True for the events to time, once in interval
+        if (--countdown > 0)
+            return false;
+        countdown = interval;
+        return true;
+    }
+
+    public void count(Process.Event event) {
+        events[event.ordinal()].increment();
+    }
+
+    public void record(Process.Event event, long elapsed, Process p, int time, int ready) { // A timed event, also committed to a JFR recording when one runs
+        int kind = event.ordinal();
+        timed[kind].increment();
+        nanos[kind].add(elapsed);
+        histogram[kind][Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, elapsed)))].increment();
+        SimulationEvent jfr = new SimulationEvent();
+        if (jfr.shouldCommit()) {
+            jfr.kind = event.name();
+            jfr.process = p.getId();
+            jfr.time = time;
+            jfr.ready = ready;
+            jfr.nanos = elapsed;
+            jfr.commit();
+        }
+    }
+
+    public void handOff(Process.Event cause) {
+        handOffs[cause.ordinal()].increment();
+    }
+
+    public EventQueue<Process> wrap(EventQueue<Process> queue) {
+        return new ProfiledEventQueue(queue, this);
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("\nProfile (1 in " + interval + " events timed):");
+        for (int k = 0; k < kinds.length; k++) {
+            long n = events[k].sum();
+            if (n == 0)
+                continue;
+            long t = timed[k].sum();
+            sb.append(String.format(Locale.ROOT, "%n  %-8s %12d events", kinds[k].name(), n));
+            if (t > 0)
+                sb.append(String.format(Locale.ROOT, ", mean %8.1f ns, p50 < %s, p99 < %s", nanos[k].sum() / (double) t,
+                        bound(k, 0.50, t), bound(k, 0.99, t)));
+        }
+        sb.append(String.format(Locale.ROOT, "%n  Event queue: %d offers, %d polls", offers.sum(), polls.sum()));
+        sb.append(String.format(Locale.ROOT, "%n  Ready queue: %d enqueued, %d requeued, hand-offs after BLOCK %d, EXIT %d, TIMEOUT %d",
+                enqueued.sum(), requeued.sum(), handOffs[Process.Event.BLOCK.ordinal()].sum(),
+                handOffs[Process.Event.EXIT.ordinal()].sum(), handOffs[Process.Event.TIMEOUT.ordinal()].sum()));
+        return sb.toString();
+    }
+
+    private String bound(int kind, double quantile, long total) { // Upper bound of the bucket holding the quantile
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram[kind][b].sum();
+            if (seen >= rank)
+                return duration(1L << b);
+        }
+        return "?";
+    }
+
+    static String duration(long nanos) {
+        if (nanos < 1_000)
+            return nanos + " ns";
+        return nanos < 1_000_000 ? String.format(Locale.ROOT, "%.1f us", nanos / 1e3) : String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+    }
+
+    @Name("scheduler.SimulationEvent")
+    @Label("Simulation Event")
+    @Category("Scheduler")
+    @Description("One timed event of the simulation event loop")
+    static class SimulationEvent extends Event {
+        @Label("Kind")
+        String kind;
+        @Label("Process")
+        int process;
+        @Label("Simulated Time")
+        int time;
+        @Label("Ready Processes")
+        int ready;
+        @Label("Nanoseconds")
+        long nanos;
+    }
+
+    static final class ProfiledEventQueue extends AbstractQueue<Process> implements EventQueue<Process> { // Counts the operations of the event queue it wraps
+        final EventQueue<Process> queue;
+        private final Profiler profiler;
+
+        ProfiledEventQueue(EventQueue<Process> queue, Profiler profiler) {
+            this.queue = queue;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public boolean offer(Process p) {
+            profiler.offers.increment();
+            return queue.offer(p);
+        }
+
+        @Override
+        public Process poll() {
+            profiler.polls.increment();
+            return queue.poll();
+        }
+
+        @Override
+        public Process peek() {
+            return queue.peek();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return queue.remove(o);
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+
+        @Override
+        public Iterator<Process> iterator() {
+            return queue.iterator();
+        }
+
+        @Override
+        public Comparator<? super Process> comparator() {
+            return queue.comparator();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+
+public class QuantileSketch { // Quantiles within 1% relative error in constant memory, log spaced buckets as in DDSketch
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final Buckets positive = new Buckets(); // Counts of values > 0 by bucket index
+    private final Buckets negative = new Buckets(); // Counts of values < 0 by bucket index of -value
+    private long zeroCount = 0;
+    private long count = 0;
+    private double sum = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    static final class Buckets { // Contiguous counts from index offset, grown to the indexes seen
+        long[] counts = new long[0];
+        int offset = 0;
+
+        void add(int index) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = index - 8;
+            } else if (index < offset || index >= offset + counts.length) {
+                int low = Math.min(offset, index);
+                int high = Math.max(offset + counts.length, index + 1);
+                int length = Math.max(high - low, counts.length * 2);
+                long[] grown = new long[length];
+                int newOffset = index < offset ? high - length : low;
+                System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+                counts = grown;
+                offset = newOffset;
+            }
+            counts[index - offset]++;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(offset);
+            out.writeInt(counts.length);
+            for (long c : counts)
+                out.writeLong(c);
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            offset = in.readInt();
+            counts = new long[in.readInt()];
+            for (int k = 0; k < counts.length; k++)
+                counts[k] = in.readLong();
+        }
+    }
+
+    void writeTo(DataOutput out) throws IOException { // State for a checkpoint
+        positive.writeTo(out);
+        negative.writeTo(out);
+        out.writeLong(zeroCount);
+        out.writeLong(count);
+        out.writeDouble(sum);
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        positive.readFrom(in);
+        negative.readFrom(in);
+        zeroCount = in.readLong();
+        count = in.readLong();
+        sum = in.readDouble();
+        min = in.readDouble();
+        max = in.readDouble();
+    }
+
+    static int indexOf(double v) { // Bucket of a positive value, gamma^(i-1) < v <= gamma^i
+        return (int) Math.ceil(Math.log(v) / LOG_GAMMA);
+    }
+
+    static double valueOf(int index) { // Value at the middle of a bucket in relative terms
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    public void add(double v) {
+        if (v > 0)
+            positive.add(indexOf(v));
+        else if (v < 0)
+            negative.add(indexOf(-v));
+        else
+            zeroCount++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    public double quantile(double q) { // Nearest rank: the smallest value with at least the fraction q of the values at or below it
+        if (count == 0)
+            return Double.NaN;
+        long rank = Math.max(0, Math.min(count - 1, (long) Math.ceil(q * count) - 1)); // From 0
+        if (rank == count - 1)
+            return max; // The extremes are known exactly, small samples reach them already at p95 or p99
+        if (rank == 0)
+            return min;
+        long seen = 0;
+        for (int k = negative.counts.length - 1; k >= 0; k--) { // Most negative first
+            seen += negative.counts[k];
+            if (seen > rank)
+                return clamp(-valueOf(k + negative.offset));
+        }
+        seen += zeroCount;
+        if (seen > rank)
+            return 0;
+        for (int k = 0; k < positive.counts.length; k++) {
+            seen += positive.counts[k];
+            if (seen > rank)
+                return clamp(valueOf(k + positive.offset));
+        }
+        return max;
+    }
+
+    private double clamp(double v) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "min=%.3f p50=%.3f p95=%.3f p99=%.3f max=%.3f",
+                min, quantile(0.50), quantile(0.95), quantile(0.99), max);
+    }
+}
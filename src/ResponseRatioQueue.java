@@ -0,0 +1,219 @@
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntSupplier;
+
+public class ResponseRatioQueue extends AbstractQueue<Process> { // Kinetic max heap of ready processes by response ratio at the current time
+    private final IntSupplier clock; // Simulation time the head is read at, never goes back
+    private Process[] heap = new Process[16]; // Heap ordered by response ratio at time now
+    private int size = 0;
+    private long now = 0; // Time the heap order is valid at
+    private long[] failTime = new long[16]; // Time each slot overtakes its parent, Long.MAX_VALUE when it never does
+    private int[] certHeap = new int[16]; // Min heap of slots 1..size-1 by fail time
+    private int[] certSlot = new int[16]; // Position of each slot in certHeap
+
+    public ResponseRatioQueue(IntSupplier clock) {
+        this.clock = clock;
+    }
+
+    // A process that became ready at w with expected service s has response ratio 1 + (t - w) / s at time t,
+    // a line in t. The order of two processes only changes once, when the steeper line crosses the other,
+    // so each parent-child pair keeps the time its order fails and only failed pairs are swapped when time moves on.
+
+    static long readyTime(Process p) {
+        return p.getTimeStamp(); // Time stamp is the time the process became ready while it waits
+    }
+
+    static long serviceOf(Process p) {
+        return Math.max(1, p.getRemainingBurstTime());
+    }
+
+    private boolean before(Process a, Process b, long t) { // a has the higher response ratio at time t, lower id on ties
+        long d = (t - readyTime(a)) * serviceOf(b) - (t - readyTime(b)) * serviceOf(a);
+        return d > 0 || (d == 0 && a.getId() < b.getId());
+    }
+
+    private long overtakeTime(Process child, Process parent) { // First time >= now the child comes before its parent
+        if (before(child, parent, now))
+            return now; // Left out of order by a swap above, fixed right away
+        long slope = serviceOf(parent) - serviceOf(child); // Steeper child line catches up
+        if (slope <= 0)
+            return Long.MAX_VALUE;
+        long cross = readyTime(child) * serviceOf(parent) - readyTime(parent) * serviceOf(child);
+        long t = child.getId() < parent.getId() ? -Math.floorDiv(-cross, slope) : Math.floorDiv(cross, slope) + 1;
+        return Math.max(t, now);
+    }
+
+    private void advance() { // Swap every pair whose order failed up to the clock, in time order
+        long t = clock.getAsInt();
+        while (size > 1 && failTime[certHeap[0]] <= t) {
+            int slot = certHeap[0];
+            now = failTime[slot];
+            int parent = (slot - 1) >>> 1;
+            Process child = heap[slot];
+            place(heap[parent], slot);
+            place(child, parent);
+        }
+        now = Math.max(now, t);
+    }
+
+    @Override
+    public boolean offer(Process p) {
+        if (p.getHeapSlot() >= 0)
+            throw new IllegalStateException("Process " + p.getId() + " is already queued");
+        advance();
+        if (size == heap.length)
+            grow();
+        int slot = size++;
+        if (slot > 0)
+            addCert(slot);
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(p, heap[parent], now))
+                break;
+            place(heap[parent], slot);
+            slot = parent;
+        }
+        place(p, slot);
+        return true;
+    }
+
+    @Override
+    public Process poll() {
+        if (size == 0)
+            return null;
+        advance();
+        Process head = heap[0];
+        head.setHeapSlot(-1);
+        int last = --size;
+        Process moved = heap[last];
+        heap[last] = null;
+        if (last > 0) {
+            removeCert(last);
+            int slot = 0;
+            while (2 * slot + 1 < size) {
+                int child = 2 * slot + 1;
+                if (child + 1 < size && before(heap[child + 1], heap[child], now))
+                    child++;
+                if (!before(heap[child], moved, now))
+                    break;
+                place(heap[child], slot);
+                slot = child;
+            }
+            place(moved, slot);
+        }
+        return head;
+    }
+
+    @Override
+    public Process peek() {
+        if (size == 0)
+            return null;
+        advance();
+        return heap[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Process> iterator() { // Iterates in heap order, not in priority order
+        return new Iterator<Process>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public Process next() {
+                if (cursor >= size)
+                    throw new NoSuchElementException();
+                return heap[cursor++];
+            }
+        };
+    }
+
+    private void place(Process p, int slot) { // Put a process in a slot and refresh the pairs it belongs to
+        heap[slot] = p;
+        p.setHeapSlot(slot);
+        refresh(slot);
+        if (2 * slot + 1 < size)
+            refresh(2 * slot + 1);
+        if (2 * slot + 2 < size)
+            refresh(2 * slot + 2);
+    }
+
+    private void grow() {
+        int capacity = heap.length * 2;
+        heap = Arrays.copyOf(heap, capacity);
+        failTime = Arrays.copyOf(failTime, capacity);
+        certHeap = Arrays.copyOf(certHeap, capacity);
+        certSlot = Arrays.copyOf(certSlot, capacity);
+    }
+
+    // Certificates: slots 1..size-1 kept in a binary min heap by fail time
+
+    private void addCert(int slot) {
+        failTime[slot] = Long.MAX_VALUE;
+        int k = slot - 1; // The cert heap holds size - 1 slots
+        certHeap[k] = slot;
+        certSlot[slot] = k;
+    }
+
+    private void removeCert(int slot) { // Slot is the last one of the heap
+        int k = certSlot[slot];
+        int last = size - 1; // Cert heap size after removal, size was already decremented
+        int moved = certHeap[last];
+        if (k != last) {
+            certHeap[k] = moved;
+            certSlot[moved] = k;
+            certUp(k);
+            certDown(certSlot[moved]);
+        }
+    }
+
+    private void refresh(int slot) {
+        if (slot == 0 || slot >= size || heap[slot] == null || heap[(slot - 1) >>> 1] == null)
+            return;
+        failTime[slot] = overtakeTime(heap[slot], heap[(slot - 1) >>> 1]);
+        int k = certSlot[slot];
+        certUp(k);
+        certDown(certSlot[slot]);
+    }
+
+    private void certUp(int k) {
+        int slot = certHeap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (failTime[certHeap[parent]] <= failTime[slot])
+                break;
+            certHeap[k] = certHeap[parent];
+            certSlot[certHeap[k]] = k;
+            k = parent;
+        }
+        certHeap[k] = slot;
+        certSlot[slot] = k;
+    }
+
+    private void certDown(int k) {
+        int slot = certHeap[k];
+        int count = size - 1;
+        while (2 * k + 1 < count) {
+            int child = 2 * k + 1;
+            if (child + 1 < count && failTime[certHeap[child + 1]] < failTime[certHeap[child]])
+                child++;
+            if (failTime[certHeap[child]] >= failTime[slot])
+                break;
+            certHeap[k] = certHeap[child];
+            certSlot[certHeap[k]] = k;
+            k = child;
+        }
+        certHeap[k] = slot;
+        certSlot[slot] = k;
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.PrintStream;
+import java.util.concurrent.locks.LockSupport;
+
+public class RunLog { // Run log buffered in a preallocated ring and written by a background thread
+    static final int CAPACITY = 1 << 16; // Records held by the ring, must be a power of two
+    static final int FIELDS = 4; // Ints per record: message, then up to three arguments
+
+    enum Level {
+        OFF, // Nothing is written
+        SUMMARY, // Settings and results
+        EVENTS, // One line for every event handled
+        DEBUG // Ready queue hand-offs as well
+    }
+
+    enum Message { // Lines of the run log, formatted by the writer thread from the recorded ints
+        TEXT(Level.SUMMARY) { // Preformatted line
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+            }
+        },
+        ARRIVE(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Process ").append(a).append(" arrives to use CPU (＾O＾)");
+            }
+        },
+        BLOCK(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Process ").append(a).append(" being blocked ¯\\_(ツ)_/¯");
+            }
+        },
+        READY_AT(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Process ").append(a).append(" will be ready at ").append(b).append(" units of time");
+            }
+        },
+        UNBLOCK(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Unblock: Releasing Process ").append(a).append(" at ").append(b).append(" units of time");
+            }
+        },
+        RELEASE(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Releasing Process ").append(a);
+            }
+        },
+        FINISH(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Process ").append(a).append(" finishes.");
+            }
+        },
+        PREEMPT(Level.EVENTS) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Timeout: Process ").append(a).append(" adjusts CPU usage time.");
+            }
+        },
+        NO_ACTIVITY(Level.SUMMARY) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Warning: unable to update CurrentActivity.").append("\nCause: empty Activity Queues.");
+            }
+        },
+        READY_WAITED(Level.DEBUG) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Ready_Process ").append(a).append(" waited for ").append(b).append(" units of time");
+            }
+        },
+        READY_STATE(Level.DEBUG) { // a: event causing the hand-off, b: activity code, c: event code, -1 for none
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                String cause = Process.Event.values()[a].name();
+                sb.append(cause.charAt(0)).append(cause.substring(1).toLowerCase()).append(": ")
+                        .append(b < 0 ? null : Process.ActivityCode.values()[b]).append("---")
+                        .append(c < 0 ? null : Process.Event.values()[c]);
+            }
+        },
+        READY_SINCE(Level.DEBUG) {
+            @Override
+            void format(StringBuilder sb, int a, int b, int c) {
+                sb.append("Ready has waited since: ").append(a);
+            }
+        };
+
+        final Level level; // Lowest log level writing this message
+
+        Message(Level level) {
+            this.level = level;
+        }
+
+        abstract void format(StringBuilder sb, int a, int b, int c);
+    }
+
+    private Level level;
+    private PrintStream out;
+    private final int[] records = new int[CAPACITY * FIELDS]; // Ring of recorded messages
+    private final String[] texts = new String[CAPACITY]; // Lines of TEXT records
+    private long tail = 0; // Records written by the simulation thread
+    private volatile long published = 0; // Records visible to the writer thread
+    private volatile long consumed = 0; // Records already formatted by the writer thread
+    private volatile boolean closed = false;
+    private Thread writer; // Started with the first record
+
+    public RunLog(Level level, PrintStream out) {
+        this.level = level;
+        this.out = out;
+    }
+
+    public static Level parseLevel(String name) { // Log level of a schedule file entry, everything by default
+        return name == null ? Level.DEBUG : Level.valueOf(name.trim().toUpperCase());
+    }
+
+    public boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) <= 0 && level != Level.OFF;
+    }
+
+    public void println(String line) { // Settings and results, the caller builds the line
+        if (isEnabled(Level.SUMMARY))
+            put(Message.TEXT, line, 0, 0, 0);
+    }
+
+    public void log(Message message, int a) {
+        if (isEnabled(message.level))
+            put(message, null, a, 0, 0);
+    }
+
+    public void log(Message message, int a, int b) {
+        if (isEnabled(message.level))
+            put(message, null, a, b, 0);
+    }
+
+    public void log(Message message, int a, int b, int c) {
+        if (isEnabled(message.level))
+            put(message, null, a, b, c);
+    }
+
+    public void close() { // Write out everything recorded so far and stop the writer thread
+        if (writer == null)
+            return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        closed = false;
+    }
+
+    public void reopen(Level level, PrintStream out) { // Reuse the ring for another run once everything so far is written
+        close();
+        this.level = level;
+        this.out = out;
+    }
+
+    private void put(Message message, String text, int a, int b, int c) {
+        if (writer == null) {
+            writer = new Thread(this::drain, "run-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        while (tail - consumed == CAPACITY) { // Ring is full, wait for the writer
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+        }
+        int slot = (int) (tail & (CAPACITY - 1));
+        int base = slot * FIELDS;
+        records[base] = message.ordinal();
+        records[base + 1] = a;
+        records[base + 2] = b;
+        records[base + 3] = c;
+        texts[slot] = text;
+        published = ++tail;
+        if ((tail & (CAPACITY / 2 - 1)) == 0) // Wake the writer every half ring
+            LockSupport.unpark(writer);
+    }
+
+    private void drain() { // Writer thread: format published records in batches
+        Message[] messages = Message.values();
+        StringBuilder sb = new StringBuilder(1 << 16);
+        long next = consumed;
+        while (true) {
+            boolean done = closed;
+            long end = published;
+            for (; next < end; next++) {
+                int slot = (int) (next & (CAPACITY - 1));
+                int base = slot * FIELDS;
+                Message message = messages[records[base]];
+                if (message == Message.TEXT) {
+                    sb.append(texts[slot]);
+                    texts[slot] = null;
+                } else
+                    message.format(sb, records[base + 1], records[base + 2], records[base + 3]);
+                sb.append(System.lineSeparator());
+                if (sb.length() >= 1 << 15) {
+                    out.print(sb);
+                    sb.setLength(0);
+                }
+            }
+            consumed = next;
+            if (sb.length() > 0) {
+                out.print(sb);
+                sb.setLength(0);
+            }
+            out.flush();
+            if (done && next == published)
+                return;
+            if (next == published)
+                LockSupport.parkNanos(this, 1_000_000);
+        }
+    }
+}
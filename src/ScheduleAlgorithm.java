@@ -1,824 +1,696 @@
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.*;
 
 public class ScheduleAlgorithm {
     HashMap<String, String> scheduleInfoList = new HashMap<>(); // To store algorithm components
-    ArrayList<String[]> processEventList = new ArrayList<>(); // To store processes obtained from the process file
-    ArrayList<Process> processObjList = new ArrayList<>(); // To store objects of process statistics
-    ArrayList<Process> finishList = new ArrayList<>(); // List of finished processes
-    Queue<Process> eventQueue = new PriorityQueue<>(); // Priority queue of events, sorted by time stamp
-    Queue<Process> readyQueue = new PriorityQueue<>(); // Queue for holding processes when CPU is busy
-    Queue<Process> updateQueue = new LinkedList<>(); // Queue for updating process priorities
-
-    boolean noExecution = true; // Flag for available CPU accessibility
+    ProcessSource arrivals; // Processes not arrived yet, read on demand
+    String processFileName; // Process file the arrivals are read from, null for a workload in memory
+    Checkpoint checkpoint; // Snapshots every "checkpoint_interval" events to the "checkpoint" file, null otherwise
+    long metricsResumeLength = -1; // Length of the metrics file at the checkpoint this run resumes from
+    MetricsSink metrics; // Results of the finished processes, streamed to the "metrics" file and summarized
+    TimeSeries timeSeries; // Sampled every "sample_interval" units of time when sampling is asked for, null otherwise
+    Profiler profiler; // Event counts and timings with the "profile" entry, null otherwise
+    ArrayList<TimeSeries.Listener> listeners = new ArrayList<>(); // Told about every sampled window
+    int blockedCount = 0; // Processes doing IO
+    EventQueue<Process> eventQueue; // Priority queue of events, sorted by time stamp, heap or timing wheel
+
+    int cpus = 1; // Number of CPUs, "cpus" entry of the schedule file
+    BitSet idleCores; // CPUs free to take an arriving process
+    Process[] running; // Process holding each CPU, null when the CPU is free
+    long[] coreBusyTime; // CPU time given out by each CPU
+    long stealCount = 0; // Ready processes taken from the queue of another CPU
     boolean programTerminate = false; // Flag for process scheduling stimulation
-    boolean quantumProcessed = false; // Flag to mark the process activity will be handled using quantum
     boolean serviceGiven = false;
-    int i = 0; // process id starts from 1
     int processCount = 0; // Number of executing processes
+    long eventCount = 0; // Number of events handled
     int currentTime = 0; // Current time stamp
     int quantum = Integer.MAX_VALUE;
+    double meanTurnaroundTime = 0; // Results over the finished processes
+    double meanNormalizedTurnaroundTime = 0;
+    double meanAvgResTime = 0;
     double alpha = 0.0; // The weight factor in exponential averaging
+    BurstPredictor predictor; // Predicts CPU bursts when service times are not given, null otherwise
     Process.Activity currActivity; // Process current activity
     Process.Activity readyActivity; // Process ready-to-run activity
+    SchedulingPolicy policy; // Scheduling algorithm driven by the event loop
+    RunLog runLog; // Run log written in the background, level set by the "log" entry of the schedule file
+    boolean exitOnFail = true; // A failed run ends the program, batch runs go on with the next one
 
     public ScheduleAlgorithm(String[] scheduleFile) throws FileNotFoundException {
+        this(readScheduleFile(scheduleFile));
+    }
+
+    public ScheduleAlgorithm(Map<String, String> scheduleInfo) { // Schedule file entries given directly
+        scheduleInfoList.putAll(scheduleInfo);
+        runLog = new RunLog(RunLog.parseLevel(scheduleInfoList.get("log")), System.out);
+    }
+
+    static HashMap<String, String> readScheduleFile(String[] scheduleFile) throws FileNotFoundException {
+        HashMap<String, String> scheduleInfo = new HashMap<>();
         String scheduleDirectory = "schedule_files/";
         File fileName = new File(scheduleDirectory + scheduleFile[0] + "." + scheduleFile[1]);
         Scanner sc = new Scanner(fileName);
         while (sc.hasNext()) {
             String[] input = sc.nextLine().split("=", 2);
-            scheduleInfoList.put(input[0], input[1]);
+            scheduleInfo.put(input[0], input[1]);
         }
+        sc.close();
+        return scheduleInfo;
     }
 
-    public void getProcesses(String[] processFile) throws FileNotFoundException {
-        String processDirectory = "process_files/";
-        File fileName = new File(processDirectory + processFile[0] + "." + processFile[1]);
-        Scanner sc = new Scanner(fileName);
-        while (sc.hasNextLine()) { // 1. Load processes from process file.
-            processEventList.add(sc.nextLine().split(" ", 2));
+    public void reset(Map<String, String> scheduleInfo, PrintStream out) { // Get ready for another run, the event queue and the run log ring are kept
+        if (arrivals != null)
+            arrivals.close(); // Left open by a failed run
+        arrivals = null;
+        scheduleInfoList.clear();
+        scheduleInfoList.putAll(scheduleInfo);
+        processFileName = null;
+        checkpoint = null;
+        metricsResumeLength = -1;
+        metrics = null;
+        timeSeries = null;
+        profiler = null;
+        listeners.clear();
+        blockedCount = 0;
+        if (eventQueue != null)
+            eventQueue.clear();
+        if (eventQueue instanceof Profiler.ProfiledEventQueue)
+            eventQueue = ((Profiler.ProfiledEventQueue) eventQueue).queue; // Wrapped again when the next run profiles
+        cpus = 1;
+        idleCores = null;
+        running = null;
+        coreBusyTime = null;
+        stealCount = 0;
+        programTerminate = false;
+        serviceGiven = false;
+        processCount = 0;
+        eventCount = 0;
+        currentTime = 0;
+        quantum = Integer.MAX_VALUE;
+        meanTurnaroundTime = 0;
+        meanNormalizedTurnaroundTime = 0;
+        meanAvgResTime = 0;
+        alpha = 0.0;
+        predictor = null;
+        currActivity = null;
+        readyActivity = null;
+        policy = null;
+        runLog.reopen(RunLog.parseLevel(scheduleInfoList.get("log")), out);
+    }
+
+    public boolean handle(String algorithm) { // Run the handler named by a schedule file, false when there is none
+        switch (algorithm) {
+            case "fcfs":
+                fcfsHandler();
+                return true;
+            case "vrr":
+                vrrHandler();
+                return true;
+            case "srt":
+                srtHandler();
+                return true;
+            case "hrrn":
+                hrrnHandler();
+                return true;
+            case "fb":
+                fbHandler();
+                return true;
+            default:
+                return false;
         }
-        processCount = processEventList.size();
+    }
+
+    public void getProcesses(String[] processFile) throws IOException {
+        String processDirectory = "process_files/";
+        processFileName = processFile[0] + "." + processFile[1];
+        getProcesses(new File(processDirectory + processFileName));
+    }
+
+    public void getProcesses(File file) throws IOException { // Any process file, only the ones named from process_files can be checkpointed
+        if (file.getName().toLowerCase().endsWith(".bin"))
+            arrivals = new BinaryProcessFileSource(file); // Binary workload converted by BinaryProcessFile
+        else
+            arrivals = new ProcessFileSource(file); // Processes are read while the simulation runs
+    }
+
+    public void shareProcesses(ProcessTable processTable) { // Use a workload shared with other simulations, left unchanged
+        arrivals = new ProcessTableSource(processTable);
     }
 
     public boolean noProcessLeft() {
-        return eventQueue.isEmpty() && readyQueue.isEmpty();
+        return eventQueue.isEmpty() && !policy.hasReady() && !arrivals.hasNext();
+    }
+
+    public boolean hasEvents() { // Any queued or not yet arrived event
+        return !eventQueue.isEmpty() || arrivals.hasNext();
+    }
+
+    public void calculateMeans() {
+        meanTurnaroundTime = metrics.turnaroundSum;
+        meanNormalizedTurnaroundTime = metrics.normalizedSum.value();
+        meanAvgResTime = metrics.responseSum.value();
+        meanTurnaroundTime /= processCount;
+        meanNormalizedTurnaroundTime /= processCount;
+        meanAvgResTime /= processCount;
     }
 
     public void printRes() {
-        double meanTurnaroundTime = 0;
-        double meanNormalizedTurnaroundTime = 0;
-        double meanAvgResTime = 0;
-        finishList.sort(Comparator.comparing(Process::getId));
-        for (Process a : finishList) {
-            System.out.println(a.toString());
-            meanTurnaroundTime += a.getTurnaroundTime();
-            meanNormalizedTurnaroundTime += a.getNormalizedTurnaroundTime();
-            meanAvgResTime += a.getAverageResponseTime();
+        calculateMeans();
+        if (!runLog.isEnabled(RunLog.Level.SUMMARY))
+            return;
+        metrics.printListing(runLog);
+        runLog.println("\nMean Turnaround: " + meanTurnaroundTime);
+        runLog.println("Mean Normalized Turnaround: " + meanNormalizedTurnaroundTime);
+        runLog.println("Mean Average Response Time: " + meanAvgResTime);
+        metrics.printPercentiles(runLog);
+        if (predictor != null)
+            runLog.println(predictor.report());
+        if (timeSeries != null)
+            runLog.println(timeSeries.summary());
+        if (profiler != null)
+            runLog.println(profiler.report());
+        if (cpus > 1) {
+            runLog.println("");
+            for (int i = 0; i < cpus; i++)
+                runLog.println("CPU " + i + ": busy " + coreBusyTime[i] + " units of time, utilization " + String.format("%.2f", currentTime == 0 ? 0.0 : 100.0 * coreBusyTime[i] / currentTime) + "%");
+            runLog.println("Ready processes stolen between CPUs: " + stealCount);
         }
-        System.out.println("\nMean Turnaround: " + (meanTurnaroundTime / processCount));
-        System.out.println("Mean Normalized Turnaround: " + (meanNormalizedTurnaroundTime / processCount));
-        System.out.println("Mean Average Response Time: " + (meanAvgResTime / processCount));
-    }
-
-    public void initializeEventQueue() {
-        for (String[] a : processEventList) {
-            processObjList.add(new Process((i + 1), Integer.parseInt(a[0]), scheduleInfoList.get("name"), a[1])); // Record arrival time
-            processObjList.get(i).setCurrEventCode(Process.Event.ARRIVE);
-            // Initialize event queue with the arrival events for the processes
-            eventQueue.add(processObjList.get(i));
-            i++;
+    }
+
+    public void initializeEventQueue() { // Load arrivals that may come before the head of the event queue
+        while (arrivals.hasNext() && (eventQueue.isEmpty() || arrivals.peekArrivalTime() <= eventQueue.peek().getTimeStamp()))
+            eventQueue.add(admitNext());
+    }
+
+    Process admitNext() { // Build the next process of the workload, only when its arrival is due
+        Process p = arrivals.next(policy.getOrdering()); // Record arrival time
+        p.setCurrEventCode(Process.Event.ARRIVE);
+        processCount++;
+        policy.admit(p);
+        return p;
+    }
+
+    Process nextEvent() { // Pop the next event, an arrival that comes strictly before everything else skips the event queue
+        if (arrivals.hasNext() && (eventQueue.isEmpty() || arrivals.peekArrivalTime() < eventQueue.peek().getTimeStamp())) {
+            Process p = admitNext();
+            if (!arrivals.hasNext() || arrivals.peekArrivalTime() > p.getArrivalTime())
+                return p;
+            eventQueue.add(p); // Arrivals at the same time are ordered by the event queue
         }
+        initializeEventQueue();
+        return eventQueue.remove();
     }
 
-    public void updateEventQueue() {
-        while (!eventQueue.isEmpty()) {
-            updateQueue.add(eventQueue.remove());
+    public Process peekEvent() { // Next event including the ones not loaded yet
+        initializeEventQueue();
+        return eventQueue.peek();
+    }
+
+    EventQueue<Process> newEventQueue(Process.Ordering ordering) { // "event_queue" entry of the schedule file, heap by default
+        String kind = scheduleInfoList.getOrDefault("event_queue", "heap").trim();
+        boolean kept = eventQueue != null && eventQueue.comparator() == ordering; // Emptied by reset, storage already grown
+        switch (kind.toLowerCase()) {
+            case "heap":
+                return kept && eventQueue instanceof IndexedPriorityQueue ? eventQueue : new IndexedPriorityQueue<>(ordering);
+            case "wheel":
+                return kept && eventQueue instanceof TimingWheelQueue ? eventQueue : new TimingWheelQueue(ordering); // Same order, O(1) amortized insert and pop by time stamp
+            default:
+                fail("Invalid event queue - " + kind);
+                return null;
         }
+    }
+
+    void initializeCores() {
+        String entry = scheduleInfoList.get("cpus");
+        cpus = entry == null ? 1 : Integer.parseInt(entry.trim());
+        if (cpus < 1)
+            fail("Invalid number of CPUs - " + cpus);
+        idleCores = new BitSet(cpus);
+        idleCores.set(0, cpus);
+        running = new Process[cpus];
+        coreBusyTime = new long[cpus];
+    }
+
+    public boolean hasIdleCore() {
+        return !idleCores.isEmpty();
+    }
+
+    void acquireCore(Process p) { // Give a free CPU to the process, the one it last ran on if possible
+        int core = p.getCore();
+        if (core < 0 || !idleCores.get(core))
+            core = idleCores.nextSetBit(0);
+        idleCores.clear(core);
+        running[core] = p;
+        p.setCore(core);
+        if (timeSeries != null)
+            timeSeries.contextSwitch(currentTime);
+    }
 
-        while (!updateQueue.isEmpty()) {
-            eventQueue.add(updateQueue.remove());
+    void releaseCore(Process p, Process.Event cause) { // Hand the CPU of the process over to the next ready process
+        int core = p.getCore();
+        if (core < 0 || running[core] != p)
+            return; // The process did not hold a CPU
+        while (policy.hasReady()) { // Check for any waiting processes
+            if (dispatchReadyProcess(cause, core))
+                break; // Processes that only had to finish their IO do not keep the CPU
         }
+        running[core] = null;
+        idleCores.set(core); // Set CPU is free
     }
 
-    public void fcfsHandler() {
-        System.out.println("First Come First Serve Simulation...");
-        initializeEventQueue(); // Load up events
-        System.out.println("\n------------HEAD OF RUN LOG------------");
+    public void simulate(SchedulingPolicy schedulingPolicy) { // Event loop shared by every scheduling algorithm
+        simulate(schedulingPolicy, null);
+    }
+
+    void simulate(SchedulingPolicy schedulingPolicy, Checkpoint.Reader snapshot) { // Carries on from the snapshot when one is given
+        initializeCores();
+        try {
+            metrics = new MetricsSink(scheduleInfoList.get("metrics"), runLog, metricsResumeLength);
+        } catch (IOException e) {
+            fail("Metrics: " + e.getMessage());
+        }
+        policy = schedulingPolicy;
+        policy.attach(this);
+        eventQueue = newEventQueue(policy.getOrdering());
+        initializeProfiler();
+        policy.initialize(); // Algorithm specific set up
+        if (cpus > 1)
+            runLog.println("CPUs=" + cpus);
+        initializeTimeSeries();
+        if (snapshot != null) {
+            try {
+                restore(snapshot);
+            } catch (IOException e) {
+                fail("Checkpoint: " + e.getMessage());
+            }
+            runLog.println("\n--------RESUMED AT " + currentTime + " UNITS OF TIME--------");
+        } else
+            runLog.println(policy.getRunLogHead());
+        initializeCheckpoint();
         while (!programTerminate) {
-            Process currProcess = eventQueue.remove();
+            if (checkpoint != null && eventCount >= checkpoint.nextEvent)
+                checkpoint();
+            long started = profiler != null && profiler.sample() ? System.nanoTime() : 0; // Timed from the pop of the event
+            Process currProcess = nextEvent(); // Load up events
+            eventCount++;
             Process.Event event = currProcess.getCurrEventCode();
+            if (profiler != null)
+                profiler.count(event);
             currentTime = currProcess.getTimeStamp();
             currActivity = currProcess.getCurrActivity();
+            if (timeSeries != null)
+                timeSeries.advanceTo(currentTime, policy.readyCount, blockedCount, eventCount - 1);
             switch (event) {
                 case ARRIVE: // Process CPU and null activities
-                    if (noExecution) {
-                        System.out.println("Process " + currProcess.getId() + " arrives to use CPU (＾O＾)");
-                        noExecution = false; // Set CPU is busy
+                    if (hasIdleCore()) {
+                        runLog.log(RunLog.Message.ARRIVE, currProcess.getId());
+                        acquireCore(currProcess); // Set CPU is busy
 
                         if (currActivity.code == null || currActivity.code == Process.ActivityCode.IO) {
-                            currProcess.getNextCurrActivity(); // Update Current Activity to use CPU
+                            nextActivity(currProcess); // Update Current Activity to use CPU
                             currActivity = currProcess.getCurrActivity();
                         }
-                        if (currProcess.getStartTime() == -1)
-                            currProcess.setStartTime(currentTime); // Set the first time Process gains control of the  CPU
-
-                        if (currProcess.getWaitingTimestamp() < 0) { // Capture wait time for CPU activities
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getArrivalTime());
-                        } else
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getWaitingTimestamp());
-
-                        if (currActivity.code == Process.ActivityCode.CPU) {
-                            currentTime += currActivity.duration;
-                            currProcess.setTimeStamp(currentTime); // Record time stamp for current process
-                            currProcess.addServiceTime(currActivity.duration); // Sum all CPU possessed times for service time
-                        } else {
-                            System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                            System.exit(1);
-                        }
-
-                        if (currProcess.eventIsLast()) { // Exit if last activity is being processed
-                            currProcess.setCurrEventCode(Process.Event.EXIT);
-                        } else
-                            currProcess.setCurrEventCode(Process.Event.BLOCK);
-
+                        policy.dispatch(currProcess); // Let the algorithm decide how long the process keeps the CPU
                         eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
+                    } else {
+                        policy.enqueue(currProcess); // Redirect to Ready queue if every CPU is in use
+                        if (profiler != null)
+                            profiler.enqueued.increment();
+                    }
                     break;
                 case BLOCK: // Process IO
-                    System.out.println("Process " + currProcess.getId() + " being blocked ¯\\_(ツ)_/¯");
+                    runLog.log(RunLog.Message.BLOCK, currProcess.getId());
                     if (currActivity.code == Process.ActivityCode.CPU) {
-                        currProcess.getNextCurrActivity(); // Update Current Activity to use IO devices
+                        if (predictor != null)
+                            predictor.record(currProcess, currProcess.getCurrActivityLength()); // Learn from the finished CPU burst
+                        nextActivity(currProcess); // Update Current Activity to use IO devices
                         currActivity = currProcess.getCurrActivity();
                     }
                     int wait = currentTime + currActivity.duration;
                     currProcess.setWaitingTime(wait); // Set wait time for current activity
-                    System.out.println("Process " + currProcess.getId() + " will be ready at " + wait + " units of time");
+                    policy.onBlock(currProcess);
+                    runLog.log(RunLog.Message.READY_AT, currProcess.getId(), wait);
                     if (currActivity.code == Process.ActivityCode.IO)
-                        currProcess.setTimeStamp(currentTime + currActivity.duration); // Record time stamp for current process
-                    else {
-                        System.out.println("Block: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
+                        currProcess.setTimeStamp(wait); // Record time stamp for current process
+                    else
+                        fail("Block: Wrong Current Activity Code -- " + currActivity.code);
                     currProcess.setCurrEventCode(Process.Event.UNBLOCK);
+                    blockedCount++;
                     eventQueue.add(currProcess); // Add back to move to next event
-                    if (!readyQueue.isEmpty()) { // Check for any waiting processes
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Block: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Redirect to Event queue to process
-                    }
-                    noExecution = true; // Set CPU is free
+                    releaseCore(currProcess, Process.Event.BLOCK);
                     break;
                 case UNBLOCK:
-                    System.out.println("Unblock: Releasing Process " + currProcess.getId() + " at " + currentTime + " units of time");
+                    runLog.log(RunLog.Message.UNBLOCK, currProcess.getId(), currentTime);
+                    blockedCount--;
 
                     if (currProcess.eventIsLast()) // Check for any CPU accessing after IO usage
                         currProcess.setCurrEventCode(Process.Event.EXIT);
                     else if (currActivity.code == Process.ActivityCode.IO) {
-                        currProcess.getNextCurrActivity();
+                        int ioDuration = currActivity.duration;
+                        nextActivity(currProcess);
                         currProcess.setCurrEventCode(Process.Event.ARRIVE);
-                    } else {
-                        System.out.println("Unblock: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
+                        policy.onUnblock(currProcess, ioDuration);
+                    } else
+                        fail("Unblock: Wrong Current Activity Code -- " + currActivity.code);
 
-                    if (noExecution) {
-                        System.out.println("Releasing Process " + currProcess.getId());
+                    if (hasIdleCore()) {
+                        runLog.log(RunLog.Message.RELEASE, currProcess.getId());
                         eventQueue.add(currProcess); // Redirect to Event queue to process
                     } else {
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
+                        policy.enqueue(currProcess); // Redirect to Ready queue if every CPU is in use
+                        if (profiler != null)
+                            profiler.enqueued.increment();
                     }
                     break;
                 case EXIT:
+                    if (predictor != null && currActivity.code == Process.ActivityCode.CPU)
+                        predictor.record(currProcess, currProcess.getCurrActivityLength()); // Score the last CPU burst as well
                     currProcess.setFinishTime(currentTime); // Set Finish time
                     currProcess.setTurnaroundTime(); // Set Turnaround time by subtracting finish time by arrival time
-                    currProcess.setNormalizedTurnaroundTime(); // Set Normalized Turnaround time
+                    if (!currProcess.setNormalizedTurnaroundTime()) { // Set Normalized Turnaround time
+                        runLog.close(); // Everything logged so far comes out ahead of the error, the next record restarts the writer
+                        System.err.println("\nnormalizedTurnaroundTime: Process " + currProcess.getId() + "'s \"serviceTime\" must be non-zero!\n");
+                    }
                     currProcess.setAverageResponseTime(); // Set Average Response Time
-                    System.out.println("Process " + currProcess.getId() + " finishes.");
-                    finishList.add(currProcess); // Add to completed List
-                    if (!readyQueue.isEmpty() && !noExecution) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Exit: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Redirect to Event queue to process
+                    runLog.log(RunLog.Message.FINISH, currProcess.getId());
+                    if (timeSeries != null)
+                        timeSeries.completion(currentTime);
+                    try {
+                        metrics.record(currProcess); // Stream the results, the process is not kept
+                    } catch (IOException e) {
+                        fail("Metrics: " + e.getMessage());
                     }
-                    noExecution = true; // Set CPU is free
+                    releaseCore(currProcess, Process.Event.EXIT);
+                    currProcess.release(); // Memory held follows the processes in the system, not the workload
                     if (noProcessLeft()) // Check to terminate simulation
                         programTerminate = true;
                     break;
                 case TIMEOUT:
-                    System.out.println("TIMEOUT: Process " + currProcess.getId() + " overused CPU resources.");
+                    policy.onTimeout(currProcess);
+                    policy.requeue(currProcess); // Put the preempted process back to the event queue
+                    if (profiler != null)
+                        profiler.requeued.increment();
+                    releaseCore(currProcess, Process.Event.TIMEOUT);
+                    break;
             }
+            if (started != 0)
+                profiler.record(event, System.nanoTime() - started, currProcess, currentTime, policy.readyCount);
         }
-        System.out.println("-------------END OF RUN LOG-------------");
-        System.out.println("\nFinish FCFS in " + currentTime + " units of time.");
+        arrivals.close();
+        if (checkpoint != null) {
+            try {
+                checkpoint.close(); // Let the last snapshot reach the disk
+            } catch (Exception e) {
+                fail("Checkpoint: " + e.getMessage());
+            }
+        }
+        if (timeSeries != null)
+            timeSeries.finish(currentTime, policy.readyCount, blockedCount, eventCount);
+        runLog.println("-------------END OF RUN LOG-------------");
+        runLog.println("\nFinish " + policy.getName() + " in " + currentTime + " units of time.");
         printRes();
+        try {
+            metrics.close();
+            if (timeSeries != null && scheduleInfoList.containsKey("timeseries"))
+                timeSeries.write(scheduleInfoList.get("timeseries"));
+        } catch (IOException e) {
+            fail("Metrics: " + e.getMessage());
+        }
+        runLog.close();
     }
 
-    public void vrrHandler() {
-        System.out.println("Virtual Round Robin Simulation...");
-        initializeEventQueue();
-        quantum = Integer.parseInt(scheduleInfoList.get("quantum"));
-        System.out.println("Quantum=" + quantum);
-        System.out.println("------------HEAD OF RUN LOG------------");
-        int quantumCurrTime = 0;
-        while (!programTerminate) {
-            Process currProcess = eventQueue.remove();
-            Process.Event event = currProcess.getCurrEventCode();
-            currentTime = currProcess.getTimeStamp();
-            currActivity = currProcess.getCurrActivity();
-            switch (event) {
-                case ARRIVE: // Process CPU and null activities
-                    if (noExecution) {
-                        System.out.println("Process " + currProcess.getId() + " arrives to use CPU (＾O＾)");
-                        noExecution = false; // Set CPU is busy
+    void initializeTimeSeries() { // Sampling is on with a "timeseries" file, a "sample_interval" or a listener
+        String interval = scheduleInfoList.get("sample_interval");
+        if (interval == null && !scheduleInfoList.containsKey("timeseries") && listeners.isEmpty())
+            return;
+        timeSeries = new TimeSeries(interval == null ? 100 : Integer.parseInt(interval.trim()), cpus);
+        if (timeSeries.interval < 1)
+            fail("Invalid sample interval - " + timeSeries.interval);
+        timeSeries.listeners.addAll(listeners);
+    }
 
-                        if (currActivity.code == null || currActivity.code == Process.ActivityCode.IO) {
-                            currProcess.getNextCurrActivity(); // Update Current Activity to use CPU
-                            currActivity = currProcess.getCurrActivity();
-                        }
+    void initializeProfiler() { // Profiling is on with a "profile" entry, its value times one event in that many (64 when empty)
+        String entry = scheduleInfoList.get("profile");
+        if (entry == null)
+            return;
+        int interval = entry.trim().isEmpty() ? 64 : Integer.parseInt(entry.trim());
+        if (interval < 1)
+            fail("Invalid profile sampling interval - " + interval);
+        profiler = new Profiler(interval);
+        eventQueue = profiler.wrap(eventQueue); // Counts the queue operations, the queue is used as is when profiling is off
+    }
 
-                        if (currProcess.getStartTime() == -1) { // Set the first time Process gains control of the  CPU
-                            currProcess.setStartTime(quantumCurrTime);
-                        }
+    void initializeCheckpoint() { // Snapshots are on with a "checkpoint" file
+        String path = scheduleInfoList.get("checkpoint");
+        if (path == null)
+            return;
+        if (processFileName == null)
+            fail("Checkpoint: the workload is not read from a process file");
+        String interval = scheduleInfoList.get("checkpoint_interval");
+        checkpoint = new Checkpoint(path.trim(), interval == null ? 1_000_000 : Long.parseLong(interval.trim()), eventCount);
+        if (checkpoint.interval < 1)
+            fail("Invalid checkpoint interval - " + checkpoint.interval);
+    }
 
-                        if (eventQueue.isEmpty()) { // Synchronize quantum current time and regular current time
-                            quantumCurrTime = currentTime;
-                        }
+    void checkpoint() { // Encode the state between two events, the file is written in the background
+        checkpoint.nextEvent = eventCount + checkpoint.interval;
+        if (checkpoint.isBusy())
+            return; // Skip a snapshot rather than wait for the disk
+        try {
+            Checkpoint.Writer snapshot = new Checkpoint.Writer();
+            DataOutputStream out = snapshot.out;
+            snapshot.writeSettings(scheduleInfoList);
+            out.writeUTF(policy.getName());
+            out.writeUTF(processFileName);
+            out.writeLong(metrics.flush());
+            out.writeInt(cpus);
+            out.writeInt(currentTime);
+            out.writeInt(processCount); // Processes taken from the process file
+            out.writeLong(eventCount);
+            out.writeInt(blockedCount);
+            out.writeLong(stealCount);
+            snapshot.writeLongs(coreBusyTime, cpus);
+            for (Process p : running)
+                snapshot.writeProcess(p);
+            out.writeInt(eventQueue.size());
+            for (Process p : eventQueue)
+                snapshot.writeProcess(p); // Heap order, added back in the same order
+            policy.writeTo(snapshot);
+            out.writeBoolean(predictor != null);
+            if (predictor != null)
+                predictor.writeTo(snapshot);
+            metrics.writeTo(snapshot);
+            out.writeBoolean(timeSeries != null);
+            if (timeSeries != null) {
+                out.writeInt(timeSeries.interval);
+                timeSeries.writeTo(snapshot);
+            }
+            checkpoint.submit(snapshot.toByteArray());
+        } catch (IOException e) {
+            fail("Checkpoint: " + e.getMessage());
+        }
+    }
 
-                        if (currProcess.getWaitingTimestamp() < 0) { // Capture wait time for CPU activities
-                            currProcess.addAverageResponseTime(quantumCurrTime - currProcess.getArrivalTime());
-                        } else
-                            currProcess.addAverageResponseTime(quantumCurrTime - currProcess.getWaitingTimestamp());
-
-                        if (currActivity.duration > quantum) {
-                            currProcess.setCurrEventCode(Process.Event.TIMEOUT);
-                            quantumProcessed = true;
-                        } else {
-                            quantumProcessed = false;
-
-                            if (currActivity.code == Process.ActivityCode.CPU) {
-                                quantumCurrTime += currActivity.duration;
-                                currentTime += currActivity.duration;
-                                // for which time is up-to-date
-                                // Record time stamp for current process
-                                currProcess.setTimeStamp(Math.max(quantumCurrTime, currentTime)); // Record time stamp for current process
-                                currProcess.addServiceTime(currActivity.duration); // Sum all CPU possessed times for service time
-                            } else {
-                                System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                                System.exit(1);
-                            }
-
-                            if (currProcess.eventIsLast()) { // Exit if last activity is being processed
-                                currProcess.setCurrEventCode(Process.Event.EXIT);
-                            } else
-                                currProcess.setCurrEventCode(Process.Event.BLOCK);
-                        }
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    break;
-                case BLOCK: // Process IO
-                    System.out.println("Process " + currProcess.getId() + " being blocked ¯\\_(ツ)_/¯");
-                    if (currActivity.code == Process.ActivityCode.CPU) {
-                        currProcess.getNextCurrActivity();
-                        currActivity = currProcess.getCurrActivity();
-                    }
-                    int wait = currentTime + currActivity.duration;
-                    currProcess.setWaitingTime(wait);
-                    quantumCurrTime = currentTime;
-                    System.out.println("Process " + currProcess.getId() + " will be ready at " + wait + " units of time");
-                    if (currActivity.code == Process.ActivityCode.IO)
-                        currProcess.setTimeStamp(wait);
-                    else {
-                        System.out.println("Block: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
-                    currProcess.setCurrEventCode(Process.Event.UNBLOCK);
-                    eventQueue.add(currProcess); // Add back to move to next event
-                    if (!readyQueue.isEmpty()) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Block: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    break;
-                case UNBLOCK:
-                    System.out.println("Unblock: Releasing Process " + currProcess.getId() + " at " + currentTime + " units of time");
+    void restore(Checkpoint.Reader snapshot) throws IOException { // Counterpart of checkpoint, once the policy is initialized
+        DataInputStream in = snapshot.in;
+        snapshot.ordering = policy.getOrdering();
+        if (in.readInt() != cpus)
+            throw new IOException("Number of CPUs differs from the checkpoint");
+        currentTime = in.readInt();
+        processCount = in.readInt();
+        arrivals.skip(processCount);
+        eventCount = in.readLong();
+        blockedCount = in.readInt();
+        stealCount = in.readLong();
+        coreBusyTime = snapshot.readLongs();
+        for (int i = 0; i < cpus; i++) {
+            running[i] = snapshot.readProcess();
+            if (running[i] != null)
+                idleCores.clear(i);
+        }
+        int events = in.readInt();
+        for (int k = 0; k < events; k++)
+            eventQueue.add(snapshot.readProcess());
+        policy.readFrom(snapshot);
+        if (in.readBoolean()) {
+            if (predictor != null)
+                predictor.readFrom(snapshot);
+            else {
+                snapshot.readLongs(); // Scores of a predictor this run does not use
+                in.readLong();
+            }
+        }
+        metrics.readFrom(snapshot);
+        if (in.readBoolean()) {
+            int interval = in.readInt();
+            TimeSeries restored = timeSeries != null ? timeSeries : new TimeSeries(interval, cpus); // Read and dropped when sampling is off
+            if (restored.interval != interval)
+                throw new IOException("sample_interval differs from the checkpoint");
+            restored.readFrom(snapshot);
+        }
+    }
 
-                    if (currProcess.eventIsLast()) // Check for any CPU accessing after IO usage
-                        currProcess.setCurrEventCode(Process.Event.EXIT);
-                    else if (currActivity.code == Process.ActivityCode.IO) {
-                        currProcess.getNextCurrActivity();
-                        currProcess.setCurrEventCode(Process.Event.ARRIVE);
-                    } else {
-                        System.out.println("Unblock: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
+    public static void resume(File file, Map<String, String> overrides) throws IOException { // Carry on with a checkpointed simulation, overrides change schedule file entries from there
+        try (Checkpoint.Reader snapshot = new Checkpoint.Reader(file)) {
+            Map<String, String> settings = snapshot.readSettings();
+            String metricsFile = settings.get("metrics");
+            settings.putAll(overrides);
+            ScheduleAlgorithm sa = new ScheduleAlgorithm(settings);
+            SchedulingPolicy policy = SchedulingPolicy.forName(snapshot.in.readUTF());
+            sa.getProcesses(snapshot.in.readUTF().split("\\.", 2));
+            long metricsLength = snapshot.in.readLong();
+            if (metricsFile != null && metricsFile.equals(settings.get("metrics")))
+                sa.metricsResumeLength = metricsLength; // Same file: drop the rows written after the checkpoint, then append
+            sa.runLog.println("Resuming " + policy.getName() + " Simulation from " + file + "...");
+            sa.simulate(policy, snapshot);
+        }
+    }
 
-                    if (noExecution) {
-                        System.out.println("Releasing Process " + currProcess.getId());
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else {
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    }
-                    break;
-                case EXIT:
-                    currProcess.setFinishTime(currentTime); // Set Finish time
-                    currProcess.setTurnaroundTime(); // Set Turnaround time by subtracting finish time by arrival time
-                    currProcess.setNormalizedTurnaroundTime(); // Set Normalized Turnaround time
-                    currProcess.setAverageResponseTime(); // Set Average Response Time
-                    System.out.println("Process " + currProcess.getId() + " finishes.");
-                    finishList.add(currProcess); // Add process to completed list
-                    if (!readyQueue.isEmpty() && !noExecution) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Exit: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    if (noProcessLeft()) // Check to terminate simulation
-                        programTerminate = true;
-                    break;
-                case TIMEOUT:
-                    if (quantumProcessed) {
-                        currActivity.duration -= quantum;
-                        currProcess.updateActivityQueueHead(currActivity);
-                        currProcess.getNextCurrActivity(); // Update quantum Current Activity to use CPU
-
-                        if (currActivity.code == Process.ActivityCode.CPU) {
-                            quantumCurrTime += quantum; // Update quantum time
-                            currProcess.setWaitingTime(quantumCurrTime);
-                            currProcess.setTimeStamp(quantumCurrTime); // Record time stamp for current process
-                            currProcess.addServiceTime(quantum); // Sum all CPU possessed times for service time
-                        } else {
-                            System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                            System.exit(1);
-                        }
+    public void addListener(TimeSeries.Listener listener) { // Register before simulate, turns sampling on
+        listeners.add(listener);
+    }
 
-                        currProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        eventQueue.add(currProcess);
-                    } else {
-                        System.err.println("Timeout: Wrong Event Code" + currProcess.getCurrEventCode());
-                        System.exit(1);
-                    }
-                    if (!readyQueue.isEmpty()) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Timeout: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    break;
+    public boolean dispatchReadyProcess(Process.Event cause, int core) { // Hand the CPU over to the next ready process, true if it runs on it
+        Process readyProcess = policy.pickNext(core);
+        if (profiler != null)
+            profiler.handOff(cause);
+        runLog.log(RunLog.Message.READY_WAITED, readyProcess.getId(), currentTime - readyProcess.getTimeStamp());// Get response time for process waiting here
+        runLog.log(RunLog.Message.READY_STATE, cause.ordinal(), ordinalOf(readyProcess.getCurrActivity().code), ordinalOf(readyProcess.getCurrEventCode()));
+        readyActivity = readyProcess.getCurrActivity();
+        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
+            if (readyProcess.eventIsLast())
+                readyProcess.setCurrEventCode(Process.Event.EXIT);
+            else
+                readyProcess.setCurrEventCode(Process.Event.BLOCK);
+        } else { // Needs CPU utilization or Null current activity
+            if (readyActivity.code == Process.ActivityCode.CPU) {
+                runLog.log(RunLog.Message.READY_SINCE, readyProcess.getTimeStamp());
+                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
             }
+            readyProcess.setTimeStamp(currentTime);
+            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
         }
-        System.out.println("-------------END OF RUN LOG-------------");
-        System.out.println("\nFinish VRR in " + currentTime + " units of time.");
-        printRes();
+        eventQueue.add(readyProcess); // Redirect to Event queue to process
+        return readyProcess.getCurrEventCode() == Process.Event.ARRIVE;
     }
 
-    public void initializeTotalRemainingBurstTime(boolean serviceGiven, double alpha) {
-        if (!serviceGiven) {
-            System.out.println("Service_give=" + false);
-            if (!(0 < alpha && alpha < 1)) {
-                System.err.println("VRR: Invalid weight factor alpha - " + alpha);
-                System.exit(1);
-            } else { // Calculate the next predicted service times using alpha
-                System.out.println("alpha=" + alpha);
-                for (Process p : eventQueue) {
-                    p.setInitCPUDuration(p.peakActivityQueue().duration); // Record initial CPU duration
-                    p.setRemainingBurstTime((int) (alpha * (p.getInitCPUDuration()) + (1 - alpha) * (p.getInitCPUDuration())));
-                }
-            }
-        } else {
-            System.out.println("Service_give=" + true);
-            for (Process p : eventQueue) {
-                for (Process.Activity a : p.activityQueue) { // Get total CPU remaining Burst times using summation
-                    if (a.code == Process.ActivityCode.CPU)
-                        p.addRemainingBurstTime(a.duration);
-                }
-            }
-        }
+    public void fail(String message) { // Stop the simulation on an inconsistent state
+        runLog.close(); // Keep the log written so far
+        if (!exitOnFail)
+            throw new IllegalStateException(message); // Only this run stops
+        System.err.println(message);
+        System.exit(1);
     }
 
-    public void srtHandler() {
-        System.out.println("Shortest Remaining Time Simulation...");
-        initializeEventQueue(); // Load up events
-        serviceGiven = Boolean.parseBoolean(scheduleInfoList.get("service_give"));
-        alpha = Double.parseDouble(scheduleInfoList.get("alpha"));
-        initializeTotalRemainingBurstTime(serviceGiven, alpha); // Get total burst time with service and/or alpha
-        updateEventQueue(); // Set new priorities
-        System.out.println("\n------------HEAD OF RUN LOG------------");
-        int actualBurstTime;
-        int potentialBurstTime = Integer.MAX_VALUE;
-        while (!programTerminate) {
-            Process currProcess = eventQueue.remove();
-            Process nextProcess = eventQueue.peek();
-            Process.Event event = currProcess.getCurrEventCode();
-            currentTime = currProcess.getTimeStamp();
-            currActivity = currProcess.getCurrActivity();
-            switch (event) {
-                case ARRIVE: // Process CPU and null activities
-                    if (noExecution) {
-                        System.out.println("Process " + currProcess.getId() + " arrives to use CPU (＾O＾)");
-                        noExecution = false; // Set CPU is busy
+    static int ordinalOf(Enum<?> e) { // Log argument of an optional enum value
+        return e == null ? -1 : e.ordinal();
+    }
 
-                        if (currActivity.code == null || currActivity.code == Process.ActivityCode.IO) {
-                            currProcess.getNextCurrActivity(); // Update Current Activity to use CPU
-                            currActivity = currProcess.getCurrActivity();
-                        }
+    void nextActivity(Process p) { // Move the process on to its next activity, warn through the run log when none is left
+        if (!p.getNextCurrActivity())
+            runLog.log(RunLog.Message.NO_ACTIVITY, p.getId());
+    }
 
-                        if (currProcess.getStartTime() == -1) {
-                            currProcess.setStartTime(currentTime); // Set the first time Process gains control of the  CPU
-                        }
+    public void recordStartTime(Process p, int time) {
+        if (p.getStartTime() == -1)
+            p.setStartTime(time); // Set the first time Process gains control of the  CPU
+    }
 
-                        if (currProcess.getWaitingTimestamp() < 0) { // Capture wait time for CPU activities
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getArrivalTime());
-                        } else
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getWaitingTimestamp());
-
-                        if (nextProcess != null) {
-                            potentialBurstTime = nextProcess.getTimeStamp() - currentTime;
-                            actualBurstTime = currentTime + currActivity.duration;
-                            if (potentialBurstTime > 0 && actualBurstTime > nextProcess.getTimeStamp()) {
-                                currProcess.setCurrEventCode(Process.Event.TIMEOUT);
-                                eventQueue.add(currProcess);
-                                break;
-                            }
-                        }
+    public void recordResponseTime(Process p, int time) {
+        if (p.getWaitingTimestamp() < 0) { // Capture wait time for CPU activities
+            p.addAverageResponseTime(time - p.getArrivalTime());
+        } else
+            p.addAverageResponseTime(time - p.getWaitingTimestamp());
+    }
 
-                        if (currActivity.code == Process.ActivityCode.CPU) {
-                            currentTime += currActivity.duration;
-                            currProcess.setTimeStamp(currentTime); // Record time stamp for current process
-                            currProcess.addServiceTime(currActivity.duration); // Sum all CPU possessed times for service time
-                            currProcess.removeRemainingBurstTime(currActivity.duration);
-                        } else {
-                            System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                            System.exit(1);
-                        }
+    public void runCpuBurst(Process p, int duration) { // Occupy the CPU for the given duration
+        if (currActivity.code == Process.ActivityCode.CPU) {
+            currentTime += duration;
+            p.setTimeStamp(currentTime); // Record time stamp for current process
+            addServiceTime(p, duration); // Sum all CPU possessed times for service time
+        } else
+            fail("Arrive: Wrong Current Activity Code -- " + currActivity.code);
+    }
 
-                        if (currProcess.eventIsLast()) { // Exit if last activity is being processed
-                            currProcess.setCurrEventCode(Process.Event.EXIT);
-                        } else
-                            currProcess.setCurrEventCode(Process.Event.BLOCK);
+    public void addServiceTime(Process p, int duration) { // CPU time given to the process by the CPU it holds, ending at its time stamp
+        p.addServiceTime(duration);
+        coreBusyTime[p.getCore()] += duration;
+        if (timeSeries != null)
+            timeSeries.addBusy((long) p.getTimeStamp() - duration, p.getTimeStamp());
+    }
 
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    break;
-                case BLOCK: // Process IO
-                    System.out.println("Process " + currProcess.getId() + " being blocked ¯\\_(ツ)_/¯");
-                    if (currActivity.code == Process.ActivityCode.CPU) {
-                        currProcess.getNextCurrActivity(); // Update Current Activity to use IO devices
-                        currActivity = currProcess.getCurrActivity();
-                    }
-                    int wait = currentTime + currActivity.duration;
-                    currProcess.setWaitingTime(wait); // Set wait time for current activity
-                    System.out.println("Process " + currProcess.getId() + " will be ready at " + wait + " units of time");
-                    if (currActivity.code == Process.ActivityCode.IO)
-                        currProcess.setTimeStamp(currentTime + currActivity.duration); // Record time stamp for current process
-                    else {
-                        System.out.println("Block: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
-                    currProcess.setCurrEventCode(Process.Event.UNBLOCK);
-                    eventQueue.add(currProcess); // Add back to move to next event
-                    if (!readyQueue.isEmpty()) { // Check for any waiting processes
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Block: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Redirect to Event queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    break;
-                case UNBLOCK:
-                    System.out.println("Unblock: Process " + currProcess.getId() + " at " + currentTime + " units of time");
-                    if (currProcess.eventIsLast()) // Check for any CPU accessing after IO usage
-                        currProcess.setCurrEventCode(Process.Event.EXIT);
-                    else
-                        currProcess.setCurrEventCode(Process.Event.ARRIVE);
+    public void setBurstEndEvent(Process p) {
+        if (p.eventIsLast()) { // Exit if last activity is being processed
+            p.setCurrEventCode(Process.Event.EXIT);
+        } else
+            p.setCurrEventCode(Process.Event.BLOCK);
+    }
 
-                    if (currActivity.code == Process.ActivityCode.IO) {
-                        currProcess.getNextCurrActivity();
-                        if (!serviceGiven)
-                            currProcess.setRemainingBurstTime((int) (alpha * (currActivity.duration) + (1 - alpha) * (currProcess.getInitCPUDuration())));
-                    }
-                    if (noExecution) {
-                        System.out.println("Releasing Process " + currProcess.getId());
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else {
-                        System.out.println("Unblock: Process " + currProcess.getId() + " will be in Ready Queue");
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    }
-                    break;
-                case EXIT:
-                    currProcess.setFinishTime(currentTime); // Set Finish time
-                    currProcess.setTurnaroundTime(); // Set Turnaround time by subtracting finish time by arrival time
-                    currProcess.setNormalizedTurnaroundTime(); // Set Normalized Turnaround time
-                    currProcess.setAverageResponseTime(); // Set Average Response Time
-                    System.out.println("Process " + currProcess.getId() + " finishes.");
-                    finishList.add(currProcess); // Add to completed List
-                    if (!readyQueue.isEmpty() && !noExecution) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Exit: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    if (noProcessLeft()) // Check to terminate simulation
-                        programTerminate = true;
-                    break;
-                case TIMEOUT:
-                    System.out.println("Timeout: Process " + currProcess.getId() + " adjusts CPU usage time.");
-                    currActivity.duration -= potentialBurstTime;
-                    currProcess.updateActivityQueueHead(currActivity);
-                    currProcess.getNextCurrActivity();
+    public void fcfsHandler() {
+        runLog.println("First Come First Serve Simulation...");
+        simulate(new FcfsPolicy());
+    }
 
-                    if (currActivity.code == Process.ActivityCode.CPU) {
-                        currentTime += potentialBurstTime; // Update quantum time
-                        currProcess.setWaitingTime(currentTime);
-                        currProcess.setTimeStamp(currentTime); // Record time stamp for current process
-                        currProcess.addServiceTime(potentialBurstTime); // Sum all CPU possessed times for service time
-                        if (!serviceGiven) {
-
-                        } else {
-                            currProcess.removeRemainingBurstTime(potentialBurstTime);
-                        }
-                    } else {
-                        System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
+    public void vrrHandler() {
+        runLog.println("Virtual Round Robin Simulation...");
+        simulate(new VrrPolicy());
+    }
 
-                    currProcess.setCurrEventCode(Process.Event.ARRIVE);
-                    eventQueue.add(currProcess);
-                    if (!readyQueue.isEmpty()) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Timeout: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    break;
+    public void initializeTotalRemainingBurstTime(boolean serviceGiven, double alpha) {
+        if (!serviceGiven) {
+            runLog.println("Service_give=" + false);
+            if (!(0 < alpha && alpha < 1)) {
+                fail("VRR: Invalid weight factor alpha - " + alpha);
+            } else { // Calculate the next predicted service times using alpha
+                runLog.println("alpha=" + alpha);
+                String estimator = scheduleInfoList.getOrDefault("estimator", "ema");
+                int window = Integer.parseInt(scheduleInfoList.getOrDefault("window", "5"));
+                if (window < 1)
+                    fail("Invalid burst history window - " + window);
+                try {
+                    predictor = new BurstPredictor(estimator, alpha, window);
+                } catch (IllegalArgumentException e) {
+                    fail(e.getMessage());
+                }
+                runLog.println("estimator=" + predictor.active.getName());
             }
+        } else {
+            runLog.println("Service_give=" + true);
         }
-        System.out.println("-------------END OF RUN LOG-------------");
-        System.out.println("\nFinish SRT in " + currentTime + " units of time.");
-        printRes();
     }
 
-    public void initializeResponseRatio(boolean serviceGiven, double alpha) {
-        initializeTotalRemainingBurstTime(serviceGiven, alpha); // Get total burst time with service and/or alpha
-        for (Process p : eventQueue) {
-            p.calculateResponseRatio(p.getTimeStamp(), p.getRemainingBurstTime());
+    public void initializeRemainingBurstTime(Process p) { // Called for every process when it is loaded
+        if (!serviceGiven) { // Calculate the next predicted service times using alpha
+            predictor.initialize(p); // The first CPU burst is the initial estimate
+            p.setRemainingBurstTime(predictor.predict(p));
+        } else {
+            p.addRemainingBurstTime(p.sumNextCpuDurations()); // Get total CPU remaining Burst times using summation
         }
-        updateEventQueue(); // Set new priorities
     }
 
-    public void hrrnHandler() {
-        System.out.println("Highest Response Ratio Next Simulation...");
-        initializeEventQueue(); // Load up events
-        serviceGiven = Boolean.parseBoolean(scheduleInfoList.get("service_give"));
-        alpha = Double.parseDouble(scheduleInfoList.get("alpha"));
-        initializeResponseRatio(serviceGiven, alpha); // Get total burst time with service and/or alpha
-
-        System.out.println("\n------------HEAD OF RUN LOG------------");
-        while (!programTerminate) {
-            Process currProcess = eventQueue.remove();
-            Process.Event event = currProcess.getCurrEventCode();
-            currentTime = currProcess.getTimeStamp();
-            currActivity = currProcess.getCurrActivity();
-            switch (event) {
-                case ARRIVE: // Process CPU and null activities
-                    if (noExecution) {
-                        System.out.println("Process " + currProcess.getId() + " arrives to use CPU (＾O＾)");
-                        noExecution = false; // Set CPU is busy
-
-                        if (currActivity.code == null || currActivity.code == Process.ActivityCode.IO) {
-                            currProcess.getNextCurrActivity(); // Update Current Activity to use CPU
-                            currActivity = currProcess.getCurrActivity();
-                        }
-                        if (currProcess.getStartTime() == -1)
-                            currProcess.setStartTime(currentTime); // Set the first time Process gains control of the  CPU
-
-                        if (currProcess.getWaitingTimestamp() < 0) { // Capture wait time for CPU activities
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getArrivalTime());
-                            currProcess.calculateResponseRatio(currentTime - currProcess.getWaitingTimestamp(), currProcess.getRemainingBurstTime());
-                        } else {
-                            currProcess.addAverageResponseTime(currentTime - currProcess.getWaitingTimestamp());
-                            currProcess.calculateResponseRatio(currentTime - currProcess.getWaitingTimestamp(), currProcess.getRemainingBurstTime());
-                        }
-
-                        if (currActivity.code == Process.ActivityCode.CPU) {
-                            currProcess.setTimeStamp(currentTime + currActivity.duration); // Record time stamp for current process
-                            currProcess.addServiceTime(currActivity.duration); // Sum all CPU possessed times for service time
-                            currProcess.removeRemainingBurstTime(currActivity.duration);
-                        } else {
-                            System.out.println("Arrive: Wrong Current Activity Code -- " + currActivity.code);
-                            System.exit(1);
-                        }
-
-
-                        if (currProcess.eventIsLast()) { // Exit if last activity is being processed
-                            currProcess.setCurrEventCode(Process.Event.EXIT);
-                        } else
-                            currProcess.setCurrEventCode(Process.Event.BLOCK);
+    public void srtHandler() {
+        runLog.println("Shortest Remaining Time Simulation...");
+        simulate(new SrtPolicy());
+    }
 
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    break;
-                case BLOCK: // Process IO
-                    System.out.println("Process " + currProcess.getId() + " being blocked ¯\\_(ツ)_/¯");
-                    if (currActivity.code == Process.ActivityCode.CPU) {
-                        currProcess.getNextCurrActivity(); // Update Current Activity to use IO devices
-                        currActivity = currProcess.getCurrActivity();
-                    }
-                    int wait = currentTime + currActivity.duration;
-                    currProcess.setWaitingTime(wait); // Set wait time for current activity
-                    System.out.println("Process " + currProcess.getId() + " will be ready at " + wait + " units of time");
-                    if (currActivity.code == Process.ActivityCode.IO)
-                        currProcess.setTimeStamp(currentTime + currActivity.duration); // Record time stamp for current process
-                    else {
-                        System.out.println("Block: Wrong Current Activity Code -- " + currActivity.code);
-                        System.exit(1);
-                    }
-                    currProcess.setCurrEventCode(Process.Event.UNBLOCK);
-                    eventQueue.add(currProcess); // Add back to move to next event
-                    if (!readyQueue.isEmpty()) { // Check for any waiting processes
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Block: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Redirect to Event queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    break;
-                case UNBLOCK:
-                    System.out.println("Unblock: Process " + currProcess.getId() + " at " + currentTime + " units of time");
-                    if (currProcess.eventIsLast()) // Check for any CPU accessing after IO usage
-                        currProcess.setCurrEventCode(Process.Event.EXIT);
-                    else
-                        currProcess.setCurrEventCode(Process.Event.ARRIVE);
+    public void initializeResponseRatio(Process p) { // Called for every process when it is loaded
+        initializeRemainingBurstTime(p); // Get total burst time with service and/or alpha
+        p.calculateResponseRatio(p.getTimeStamp(), p.getRemainingBurstTime());
+    }
 
-                    if (currActivity.code == Process.ActivityCode.IO) {
-                        currProcess.getNextCurrActivity();
-                        if (!serviceGiven)
-                            currProcess.setRemainingBurstTime((int) (alpha * (currActivity.duration) + (1 - alpha) * (currProcess.getInitCPUDuration())));
-                    }
-                    if (noExecution) {
-                        System.out.println("Releasing Process " + currProcess.getId());
-                        eventQueue.add(currProcess); // Redirect to Event queue to process
-                    } else {
-                        System.out.println("Unblock: Process " + currProcess.getId() + " will be in Ready Queue");
-                        readyQueue.add(currProcess); // Redirect to Ready queue if a process is using CPU
-                    }
-                    break;
-                case EXIT:
-                    currProcess.setFinishTime(currentTime); // Set Finish time
-                    currProcess.setTurnaroundTime(); // Set Turnaround time by subtracting finish time by arrival time
-                    currProcess.setNormalizedTurnaroundTime(); // Set Normalized Turnaround time
-                    currProcess.setAverageResponseTime(); // Set Average Response Time
-                    System.out.println("Process " + currProcess.getId() + " finishes.");
-                    finishList.add(currProcess); // Add to completed List
-                    if (!readyQueue.isEmpty() && !noExecution) {
-                        Process readyProcess = readyQueue.remove();
-                        System.out.println("Ready_Process " + readyProcess.getId() + " waited for " + (currentTime - readyProcess.getTimeStamp()) + " units of time");// Get response time for process waiting here
-                        System.out.println("Exit: " + readyProcess.getCurrActivity().code + "---" + readyProcess.getCurrEventCode());
-                        readyActivity = readyProcess.getCurrActivity();
-                        if (readyActivity.code == Process.ActivityCode.IO) { // Needs IO utilization
-                            if (readyProcess.eventIsLast())
-                                readyProcess.setCurrEventCode(Process.Event.EXIT);
-                            else
-                                readyProcess.setCurrEventCode(Process.Event.BLOCK);
-                        } else { // Needs CPU utilization or Null current activity
-                            if (readyActivity.code == Process.ActivityCode.CPU) {
-                                System.out.println("Ready has waited since: " + readyProcess.getTimeStamp());
-                                readyProcess.setWaitingTime(readyProcess.getTimeStamp());
-                            }
-                            readyProcess.setTimeStamp(currentTime);
-                            readyProcess.setCurrEventCode(Process.Event.ARRIVE);
-                        }
-                        eventQueue.add(readyProcess); // Add to Event Queue to process
-                    }
-                    noExecution = true; // Set CPU is free
-                    if (noProcessLeft()) // Check to terminate simulation
-                        programTerminate = true;
-                    break;
-                case TIMEOUT:
-                    System.out.println("TIMEOUT: Process " + currProcess.getId() + " overused CPU resources.");
-            }
-        }
-        System.out.println("-------------END OF RUN LOG-------------");
-        System.out.println("\nFinish HRRN in " + currentTime + " units of time.");
-        printRes();
+    public void hrrnHandler() {
+        runLog.println("Highest Response Ratio Next Simulation...");
+        simulate(new HrrnPolicy());
     }
 
     public void fbHandler() {
-        System.out.println("Handling fb");
+        runLog.println("Feedback Simulation...");
+        simulate(new FbPolicy());
     }
 }
@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.util.Queue;
+
+public abstract class SchedulingPolicy {
+    ScheduleAlgorithm kernel; // Simulation kernel owning the event loop and the clock
+    Queue<Process>[] readyQueues; // One queue per CPU holding processes while every CPU is busy
+    int readyCount = 0; // Processes waiting in all ready queues
+    int nextCore = 0; // Ready queue of the next process that has not run yet, taken round robin
+
+    public static SchedulingPolicy forName(String name) { // Policy of the "name" entry of a schedule file
+        switch (name.toUpperCase()) {
+            case "FCFS":
+                return new FcfsPolicy();
+            case "VRR":
+                return new VrrPolicy();
+            case "SRT":
+                return new SrtPolicy();
+            case "HRRN":
+                return new HrrnPolicy();
+            case "FEEDBACK":
+                return new FbPolicy();
+            default:
+                throw new IllegalArgumentException("Unknown scheduling algorithm " + name);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array of ready queues
+    public void attach(ScheduleAlgorithm kernel) {
+        this.kernel = kernel;
+        readyQueues = new Queue[kernel.cpus];
+        for (int i = 0; i < readyQueues.length; i++)
+            readyQueues[i] = newReadyQueue();
+    }
+
+    public abstract String getName(); // Name of the algorithm printed in the run summary
+
+    public String getRunLogHead() { // First line of the run log, as the original handler of the algorithm printed it
+        return "\n------------HEAD OF RUN LOG------------";
+    }
+
+    public Process.Ordering getOrdering() { // Priority order of the event queue
+        return Process.Ordering.ARRIVAL;
+    }
+
+    public Process.Ordering getReadyOrdering() { // Priority order of the ready queues
+        return getOrdering();
+    }
+
+    Queue<Process> newReadyQueue() { // Ready queue of one CPU
+        return new IndexedPriorityQueue<>(getReadyOrdering());
+    }
+
+    public void initialize() { // Called once before the first process arrives
+    }
+
+    public void admit(Process p) { // Called for every process when it is loaded, before it enters the event queue
+    }
+
+    public abstract void dispatch(Process p); // Runs the CPU activity of a process that just gained the CPU
+
+    public void enqueue(Process p) { // Holds a process while every CPU is busy, on the CPU it last ran on
+        int core = p.getCore();
+        if (core < 0) {
+            core = nextCore;
+            nextCore = (nextCore + 1) % readyQueues.length;
+        }
+        readyQueues[core].add(p);
+        readyCount++;
+    }
+
+    public Process pickNext(int core) { // Next process to gain the given CPU, stolen from the longest queue when its own is empty
+        Queue<Process> queue = readyQueues[core];
+        if (queue.isEmpty()) {
+            queue = readyQueues[longestQueue()];
+            kernel.stealCount++;
+        }
+        readyCount--;
+        return queue.remove();
+    }
+
+    int longestQueue() {
+        int longest = 0;
+        for (int i = 1; i < readyQueues.length; i++) {
+            if (readyQueues[i].size() > readyQueues[longest].size())
+                longest = i;
+        }
+        return longest;
+    }
+
+    public boolean hasReady() {
+        return readyCount > 0;
+    }
+
+    public void onBlock(Process p) { // Called when the running process releases the CPU for IO
+    }
+
+    public void onUnblock(Process p, int ioDuration) { // Called when a process finished its IO and moved on to its next CPU activity
+    }
+
+    public void onTimeout(Process p) { // Called when the running process is preempted
+        kernel.fail("Timeout: Wrong Event Code" + p.getCurrEventCode());
+    }
+
+    public void requeue(Process p) { // Puts the preempted process back, by default as a new arrival in the event queue
+        kernel.eventQueue.add(p);
+    }
+
+    void writeTo(Checkpoint.Writer snapshot) throws IOException { // Ready queues for a checkpoint, each in the order it holds its processes
+        snapshot.out.writeInt(nextCore);
+        snapshot.out.writeInt(readyQueues.length);
+        for (Queue<Process> queue : readyQueues) {
+            snapshot.out.writeInt(queue.size());
+            for (Process p : queue)
+                snapshot.writeProcess(p);
+        }
+    }
+
+    void readFrom(Checkpoint.Reader snapshot) throws IOException { // Adding a heap back in heap order rebuilds the same heap
+        nextCore = snapshot.in.readInt();
+        if (snapshot.in.readInt() != readyQueues.length)
+            throw new IOException("Number of CPUs differs from the checkpoint");
+        for (Queue<Process> queue : readyQueues) {
+            int n = snapshot.in.readInt();
+            for (int k = 0; k < n; k++) {
+                queue.add(snapshot.readProcess());
+                readyCount++;
+            }
+        }
+    }
+}
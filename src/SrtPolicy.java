@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+public class SrtPolicy extends SchedulingPolicy {
+    int[] potentialBurstTime; // Time the process running on each CPU can keep it before the next event
+
+    @Override
+    public String getName() {
+        return "SRT";
+    }
+
+    @Override
+    public Process.Ordering getOrdering() {
+        return Process.Ordering.REMAINING_BURST;
+    }
+
+    @Override
+    public Process.Ordering getReadyOrdering() { // The CPU goes to the shortest remaining burst, whenever it got ready
+        return Process.Ordering.SHORTEST_REMAINING;
+    }
+
+    @Override
+    public void initialize() {
+        kernel.serviceGiven = Boolean.parseBoolean(kernel.scheduleInfoList.get("service_give"));
+        kernel.alpha = Double.parseDouble(kernel.scheduleInfoList.get("alpha"));
+        kernel.initializeTotalRemainingBurstTime(kernel.serviceGiven, kernel.alpha); // Check service and/or alpha
+        potentialBurstTime = new int[kernel.cpus];
+        Arrays.fill(potentialBurstTime, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void admit(Process p) {
+        kernel.initializeRemainingBurstTime(p); // Get total burst time with service and/or alpha
+    }
+
+    @Override
+    public void dispatch(Process p) {
+        Process.Activity currActivity = kernel.currActivity;
+        kernel.recordStartTime(p, kernel.currentTime);
+        kernel.recordResponseTime(p, kernel.currentTime);
+
+        Process nextProcess = kernel.peekEvent();
+        if (nextProcess != null) {
+            int potential = potentialBurstTime[p.getCore()] = nextProcess.getTimeStamp() - kernel.currentTime;
+            int actualBurstTime = kernel.currentTime + currActivity.duration;
+            if (potential > 0 && actualBurstTime > nextProcess.getTimeStamp()) {
+                p.setCurrEventCode(Process.Event.TIMEOUT); // Preempt when the next event comes in
+                return;
+            }
+        }
+
+        kernel.runCpuBurst(p, currActivity.duration);
+        p.removeRemainingBurstTime(currActivity.duration);
+        kernel.setBurstEndEvent(p);
+    }
+
+    @Override
+    public void onUnblock(Process p, int ioDuration) {
+        if (!kernel.serviceGiven)
+            p.setRemainingBurstTime(kernel.predictor.predict(p)); // Estimate updated when the last CPU burst ended
+    }
+
+    @Override
+    public void onTimeout(Process p) {
+        kernel.runLog.log(RunLog.Message.PREEMPT, p.getId());
+        Process.Activity currActivity = kernel.currActivity;
+        int potential = potentialBurstTime[p.getCore()];
+        p.runCurrActivity(potential);
+
+        if (currActivity.code == Process.ActivityCode.CPU) {
+            kernel.currentTime += potential; // Advance the clock to the preemption point, the time of the next event
+            p.setWaitingTime(kernel.currentTime);
+            p.setTimeStamp(kernel.currentTime); // Record time stamp for current process
+            kernel.addServiceTime(p, potential); // Sum all CPU possessed times for service time
+            p.removeRemainingBurstTime(potential); // Predicted bursts shrink while they run as well
+        } else
+            kernel.fail("Arrive: Wrong Current Activity Code -- " + currActivity.code);
+        p.setCurrEventCode(Process.Event.ARRIVE);
+    }
+
+    @Override
+    void writeTo(Checkpoint.Writer snapshot) throws IOException {
+        super.writeTo(snapshot);
+        snapshot.writeInts(potentialBurstTime, potentialBurstTime.length);
+    }
+
+    @Override
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        super.readFrom(snapshot);
+        potentialBurstTime = snapshot.readInts();
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class TimeSeries { // Samples the simulation every interval units of simulated time, kept as one array per column
+    interface Listener { // Told about every window as soon as simulated time moves past it
+        void onWindow(TimeSeries series, int window);
+    }
+
+    final int interval; // Simulated time per window
+    final int cpus;
+    final ArrayList<Listener> listeners = new ArrayList<>();
+    int windows = 0; // Windows closed so far
+    int[] ready = new int[64]; // Ready processes at the end of each window
+    int[] blocked = new int[64]; // Processes in IO at the end of each window
+    long[] busy = new long[64]; // CPU time given out within each window, over every CPU
+    int[] switches = new int[64]; // Processes that gained a CPU within each window
+    int[] completions = new int[64]; // Processes that exited within each window
+    long[] events = new long[64]; // Events handled by the end of each window
+    long[] wallNanos = new long[64]; // Wall clock time when each window closed, from the start of the run
+    long[] heapUsed = new long[64]; // Heap in use when each window closed
+    private long startNanos = System.nanoTime();
+    private int lastEnd = 0; // End of the last window, shorter than interval at the end of the run
+
+    public TimeSeries(int interval, int cpus) {
+        this.interval = interval;
+        this.cpus = cpus;
+    }
+
+    public void advanceTo(int time, int readyNow, int blockedNow, long eventCount) { // Close the windows that end at or before time
+        while ((long) (windows + 1) * interval <= time)
+            close(readyNow, blockedNow, eventCount, (windows + 1) * interval);
+    }
+
+    public void finish(int time, int readyNow, int blockedNow, long eventCount) { // Close the rest of the run, the last window may be short
+        advanceTo(time, readyNow, blockedNow, eventCount);
+        if (time > windows * interval || windows == 0)
+            close(readyNow, blockedNow, eventCount, time);
+    }
+
+    private void close(int readyNow, int blockedNow, long eventCount, int end) {
+        int w = windows;
+        ensure(w);
+        ready[w] = readyNow;
+        blocked[w] = blockedNow;
+        events[w] = eventCount;
+        wallNanos[w] = System.nanoTime() - startNanos;
+        Runtime runtime = Runtime.getRuntime();
+        heapUsed[w] = runtime.totalMemory() - runtime.freeMemory();
+        lastEnd = end;
+        windows++;
+        for (Listener listener : listeners)
+            listener.onWindow(this, w);
+    }
+
+    public void addBusy(long start, long end) { // A CPU ran from start to end, split over the windows it covers
+        if (start < 0)
+            start = 0;
+        while (start < end) {
+            int w = (int) (start / interval);
+            long windowEnd = Math.min(end, (long) (w + 1) * interval);
+            ensure(w);
+            busy[w] += windowEnd - start;
+            start = windowEnd;
+        }
+    }
+
+    public void contextSwitch(int time) {
+        int w = time / interval;
+        ensure(w);
+        switches[w]++;
+    }
+
+    public void completion(int time) {
+        int w = time / interval;
+        ensure(w);
+        completions[w]++;
+    }
+
+    public int getStart(int w) {
+        return w * interval;
+    }
+
+    public float getUtilization(int w) { // Percent of the CPU time of the window given out
+        long length = w == windows - 1 ? Math.max(1, lastEnd - getStart(w)) : interval;
+        return (float) (100.0 * busy[w] / ((double) length * cpus));
+    }
+
+    public double getEventsPerSecond(int w) { // Simulator speed within the window
+        long nanos = wallNanos[w] - (w == 0 ? 0 : wallNanos[w - 1]);
+        long handled = events[w] - (w == 0 ? 0 : events[w - 1]);
+        return nanos == 0 ? 0 : handled * 1e9 / nanos;
+    }
+
+    private void ensure(int w) {
+        if (w < ready.length)
+            return;
+        int length = Math.max(w + 1, ready.length * 2);
+        ready = Arrays.copyOf(ready, length);
+        blocked = Arrays.copyOf(blocked, length);
+        busy = Arrays.copyOf(busy, length);
+        switches = Arrays.copyOf(switches, length);
+        completions = Arrays.copyOf(completions, length);
+        events = Arrays.copyOf(events, length);
+        wallNanos = Arrays.copyOf(wallNanos, length);
+        heapUsed = Arrays.copyOf(heapUsed, length);
+    }
+
+    void writeTo(Checkpoint.Writer snapshot) throws IOException { // State for a checkpoint, the interval is checked by the kernel
+        snapshot.out.writeInt(windows);
+        snapshot.out.writeInt(lastEnd);
+        snapshot.writeInts(ready, ready.length);
+        snapshot.writeInts(blocked, blocked.length);
+        snapshot.writeLongs(busy, busy.length);
+        snapshot.writeInts(switches, switches.length);
+        snapshot.writeInts(completions, completions.length);
+        snapshot.writeLongs(events, events.length);
+        snapshot.writeLongs(wallNanos, wallNanos.length);
+        snapshot.writeLongs(heapUsed, heapUsed.length);
+    }
+
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        windows = snapshot.in.readInt();
+        lastEnd = snapshot.in.readInt();
+        ready = snapshot.readInts();
+        blocked = snapshot.readInts();
+        busy = snapshot.readLongs();
+        switches = snapshot.readInts();
+        completions = snapshot.readInts();
+        events = snapshot.readLongs();
+        wallNanos = snapshot.readLongs();
+        heapUsed = snapshot.readLongs();
+        if (windows > 0)
+            startNanos = System.nanoTime() - wallNanos[windows - 1]; // Wall clock carries on from the last window
+    }
+
+    public String summary() { // Speed and memory of the simulator itself
+        if (windows == 0)
+            return "Simulator: no samples";
+        long peakHeap = 0;
+        for (int w = 0; w < windows; w++)
+            peakHeap = Math.max(peakHeap, heapUsed[w]);
+        double seconds = wallNanos[windows - 1] / 1e9;
+        return String.format(Locale.ROOT, "Simulator: %d events in %.3f s (%.0f events/s), peak heap %.1f MB",
+                events[windows - 1], seconds, seconds == 0 ? 0.0 : events[windows - 1] / seconds, peakHeap / 1048576.0);
+    }
+
+    public void write(String path) throws IOException { // One line per column: name followed by the value of every window
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(path), 1 << 16)) {
+            out.write("# " + windows + " windows of " + interval + " units of time, " + cpus + " CPUs\n");
+            out.write("time");
+            for (int w = 0; w < windows; w++)
+                out.write(" " + getStart(w));
+            writeColumn(out, "ready", ready);
+            writeColumn(out, "blocked", blocked);
+            out.write("\nutilization");
+            for (int w = 0; w < windows; w++)
+                out.write(String.format(Locale.ROOT, " %.2f", getUtilization(w)));
+            writeColumn(out, "switches", switches);
+            writeColumn(out, "completions", completions);
+            out.write("\nevents_per_sec");
+            for (int w = 0; w < windows; w++)
+                out.write(String.format(Locale.ROOT, " %.0f", getEventsPerSecond(w)));
+            out.write("\nheap_kb");
+            for (int w = 0; w < windows; w++)
+                out.write(" " + heapUsed[w] / 1024);
+            out.write("\n");
+        }
+    }
+
+    private void writeColumn(BufferedWriter out, String name, int[] column) throws IOException {
+        out.write("\n" + name);
+        for (int w = 0; w < windows; w++)
+            out.write(" " + column[w]);
+    }
+}
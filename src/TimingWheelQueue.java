@@ -0,0 +1,180 @@
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+public class TimingWheelQueue extends AbstractQueue<Process> implements EventQueue<Process> { // Hierarchical timing wheel of events by integer time stamp
+    static final int BITS = 8; // Time bits per level
+    static final int SLOTS = 1 << BITS;
+    static final int LEVELS = 4; // Covers every int time stamp
+
+    // An event later than the wheel time waits on the level of the highest 8 bit digit where its time differs from the wheel time,
+    // in the slot of its digit there. When nothing is due the wheel time moves to the next occupied slot of the lowest level having one,
+    // and the events of a slot above level 0 are spread over the levels below, so each event moves at most LEVELS times.
+    // Events at or before the wheel time wait in a heap ordered like the heap event queue, which breaks the ties of equal
+    // time stamps the same way (event kind, then the tie-break of the policy, then id).
+    private final IndexedPriorityQueue<Process> due;
+    private final Process[][][] buckets = new Process[LEVELS][SLOTS][]; // Unordered events of each slot
+    private final int[][] counts = new int[LEVELS][SLOTS];
+    private final long[][] occupied = new long[LEVELS][SLOTS / 64]; // Bitmap of the non-empty slots of each level
+    private int time = 0; // Wheel time, every event in a slot comes later
+    private int waiting = 0; // Events in slots
+
+    public TimingWheelQueue(Comparator<? super Process> comparator) {
+        due = new IndexedPriorityQueue<>(comparator);
+    }
+
+    @Override
+    public boolean offer(Process p) {
+        if (p.getHeapSlot() != -1)
+            throw new IllegalStateException("Process " + p.getId() + " is already queued");
+        if (p.getTimeStamp() <= time)
+            due.add(p);
+        else
+            place(p);
+        return true;
+    }
+
+    @Override
+    public Process poll() {
+        if (due.isEmpty() && !advance())
+            return null;
+        return due.poll();
+    }
+
+    @Override
+    public Process peek() {
+        if (due.isEmpty() && !advance())
+            return null;
+        return due.peek();
+    }
+
+    @Override
+    public int size() {
+        return due.size() + waiting;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Process))
+            return false;
+        Process p = (Process) o;
+        if (due.remove(p))
+            return true;
+        int encoded = -2 - p.getHeapSlot(); // level * SLOTS + slot while the event waits in a slot
+        if (encoded < 0 || encoded >= LEVELS * SLOTS)
+            return false;
+        int level = encoded / SLOTS;
+        int slot = encoded % SLOTS;
+        Process[] bucket = buckets[level][slot];
+        int n = counts[level][slot];
+        for (int k = 0; k < n; k++) {
+            if (bucket[k] == p) {
+                bucket[k] = bucket[n - 1];
+                bucket[n - 1] = null;
+                if (--counts[level][slot] == 0)
+                    occupied[level][slot >>> 6] &= ~(1L << slot);
+                waiting--;
+                p.setHeapSlot(-1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        due.clear();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (int k = 0; k < counts[level][slot]; k++) {
+                    buckets[level][slot][k].setHeapSlot(-1);
+                    buckets[level][slot][k] = null;
+                }
+                counts[level][slot] = 0;
+            }
+            Arrays.fill(occupied[level], 0);
+        }
+        waiting = 0;
+        time = 0;
+    }
+
+    @Override
+    public Comparator<? super Process> comparator() {
+        return due.comparator();
+    }
+
+    @Override
+    public Iterator<Process> iterator() { // Iterates over a copy, due events in heap order first
+        ArrayList<Process> events = new ArrayList<>(size());
+        events.addAll(due);
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (int k = 0; k < counts[level][slot]; k++)
+                    events.add(buckets[level][slot][k]);
+            }
+        }
+        return events.iterator();
+    }
+
+    private void place(Process p) { // Event later than the wheel time
+        int t = p.getTimeStamp();
+        int level = (31 - Integer.numberOfLeadingZeros(t ^ time)) / BITS;
+        int slot = (t >>> (level * BITS)) & (SLOTS - 1);
+        Process[] bucket = buckets[level][slot];
+        int n = counts[level][slot];
+        if (bucket == null)
+            bucket = buckets[level][slot] = new Process[4];
+        else if (n == bucket.length)
+            bucket = buckets[level][slot] = Arrays.copyOf(bucket, n * 2);
+        bucket[n] = p;
+        counts[level][slot] = n + 1;
+        occupied[level][slot >>> 6] |= 1L << slot;
+        p.setHeapSlot(-2 - (level * SLOTS + slot)); // Negative so heaps see it as not queued, found again by remove
+        waiting++;
+    }
+
+    private boolean advance() { // Move the wheel time to the next event time and its events to due, false when empty
+        while (waiting > 0) {
+            int level = 0;
+            int slot = -1;
+            for (; level < LEVELS; level++) {
+                slot = nextOccupied(level, ((time >>> (level * BITS)) & (SLOTS - 1)) + 1);
+                if (slot >= 0)
+                    break;
+            }
+            if (slot < 0)
+                throw new IllegalStateException("Timing wheel lost " + waiting + " events");
+            int shift = level * BITS;
+            time = (int) (((long) time >>> (shift + BITS) << (shift + BITS)) | (long) slot << shift); // Digits above kept, below cleared
+            Process[] bucket = buckets[level][slot];
+            int n = counts[level][slot];
+            counts[level][slot] = 0;
+            occupied[level][slot >>> 6] &= ~(1L << slot);
+            waiting -= n;
+            for (int k = 0; k < n; k++) {
+                Process p = bucket[k];
+                bucket[k] = null;
+                p.setHeapSlot(-1);
+                if (p.getTimeStamp() <= time)
+                    due.add(p);
+                else
+                    place(p); // Lands on a lower level
+            }
+            if (!due.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    private int nextOccupied(int level, int from) { // First non-empty slot at or after from, -1 when none
+        long[] words = occupied[level];
+        for (int w = from >>> 6; w < words.length; w++) {
+            long bits = w == from >>> 6 ? words[w] & (-1L << from) : words[w];
+            if (bits != 0)
+                return w * 64 + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+}
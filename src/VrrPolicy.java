@@ -0,0 +1,100 @@
+import java.io.IOException;
+
+public class VrrPolicy extends SchedulingPolicy {
+    int[] quantumCurrTime; // Current time stamp of each CPU advanced by quantum slices
+    boolean[] quantumProcessed; // Flag of each CPU to mark the process activity will be handled using quantum
+    int[] slice; // Quantum the process on each CPU was given, a resumed run may change the quantum of later dispatches
+
+    @Override
+    public String getName() {
+        return "VRR";
+    }
+
+    @Override
+    public String getRunLogHead() { // The original vrrHandler printed it right below the quantum
+        return "------------HEAD OF RUN LOG------------";
+    }
+
+    @Override
+    public void initialize() {
+        kernel.quantum = Integer.parseInt(kernel.scheduleInfoList.get("quantum"));
+        kernel.runLog.println("Quantum=" + kernel.quantum);
+        quantumCurrTime = new int[kernel.cpus];
+        quantumProcessed = new boolean[kernel.cpus];
+        slice = new int[kernel.cpus];
+    }
+
+    @Override
+    public void dispatch(Process p) {
+        Process.Activity currActivity = kernel.currActivity;
+        int core = p.getCore();
+        if (kernel.cpus > 1 && quantumCurrTime[core] < kernel.currentTime) // Another CPU moved the clock on while this one sat idle
+            quantumCurrTime[core] = kernel.currentTime;
+        kernel.recordStartTime(p, quantumCurrTime[core]);
+
+        if (!kernel.hasEvents()) { // Synchronize quantum current time and regular current time
+            quantumCurrTime[core] = kernel.currentTime;
+        }
+        kernel.recordResponseTime(p, quantumCurrTime[core]);
+
+        if (currActivity.duration > kernel.quantum) {
+            p.setCurrEventCode(Process.Event.TIMEOUT);
+            quantumProcessed[core] = true;
+            slice[core] = kernel.quantum;
+        } else {
+            quantumProcessed[core] = false;
+
+            if (currActivity.code == Process.ActivityCode.CPU) {
+                quantumCurrTime[core] += currActivity.duration;
+                kernel.currentTime += currActivity.duration;
+                p.setTimeStamp(Math.max(quantumCurrTime[core], kernel.currentTime)); // Record time stamp for current process
+                kernel.addServiceTime(p, currActivity.duration); // Sum all CPU possessed times for service time
+            } else
+                kernel.fail("Arrive: Wrong Current Activity Code -- " + currActivity.code);
+            kernel.setBurstEndEvent(p);
+        }
+    }
+
+    @Override
+    public void onBlock(Process p) {
+        quantumCurrTime[p.getCore()] = kernel.currentTime;
+    }
+
+    @Override
+    public void onTimeout(Process p) {
+        int core = p.getCore();
+        if (!quantumProcessed[core]) {
+            super.onTimeout(p);
+            return;
+        }
+        Process.Activity currActivity = kernel.currActivity;
+        p.runCurrActivity(slice[core]); // The rest of the activity stays current for the next quantum
+
+        if (currActivity.code == Process.ActivityCode.CPU) {
+            quantumCurrTime[core] += slice[core]; // Update quantum time
+            p.setWaitingTime(quantumCurrTime[core]);
+            p.setTimeStamp(quantumCurrTime[core]); // Record time stamp for current process
+            kernel.addServiceTime(p, slice[core]); // Sum all CPU possessed times for service time
+        } else
+            kernel.fail("Arrive: Wrong Current Activity Code -- " + currActivity.code);
+        p.setCurrEventCode(Process.Event.ARRIVE);
+    }
+
+    @Override
+    void writeTo(Checkpoint.Writer snapshot) throws IOException {
+        super.writeTo(snapshot);
+        snapshot.writeInts(quantumCurrTime, quantumCurrTime.length);
+        for (boolean processed : quantumProcessed)
+            snapshot.out.writeBoolean(processed);
+        snapshot.writeInts(slice, slice.length);
+    }
+
+    @Override
+    void readFrom(Checkpoint.Reader snapshot) throws IOException {
+        super.readFrom(snapshot);
+        quantumCurrTime = snapshot.readInts();
+        for (int i = 0; i < quantumProcessed.length; i++)
+            quantumProcessed[i] = snapshot.in.readBoolean();
+        slice = snapshot.readInts();
+    }
+}
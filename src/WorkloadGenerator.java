@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class WorkloadGenerator { // Seeded synthetic workloads of any size, written as process files (.pf) or binary workloads (.bin)
+    static final int CHUNK = 1 << 16; // Processes per chunk, every chunk has its own random streams so the output does not depend on the threads
+    static final int MAX_DURATION = 1 << 20; // Longest CPU or IO burst, heavy tails are cut here
+
+    final long seed;
+    final String arrival; // poisson or bursty
+    final double meanGap; // Mean time between arrivals
+    final double burstFactor; // bursty: arrivals come this many times faster in a burst and slower in between
+    final int burstLength; // bursty: mean number of arrivals before switching between burst and quiet
+    final String cpu; // exponential, bimodal or pareto
+    final double meanCpu;
+    final String io;
+    final double meanIo;
+    final int maxBursts; // Each process has 1..maxBursts CPU bursts with IO in between
+
+    public WorkloadGenerator(Map<String, String> settings) {
+        seed = Long.parseLong(settings.getOrDefault("seed", "42"));
+        arrival = settings.getOrDefault("arrival", "poisson").toLowerCase(Locale.ROOT);
+        meanGap = Double.parseDouble(settings.getOrDefault("mean_gap", "10"));
+        burstFactor = Double.parseDouble(settings.getOrDefault("burst_factor", "10"));
+        burstLength = Integer.parseInt(settings.getOrDefault("burst_length", "50"));
+        cpu = settings.getOrDefault("cpu", "exponential").toLowerCase(Locale.ROOT);
+        meanCpu = Double.parseDouble(settings.getOrDefault("mean_cpu", "10"));
+        io = settings.getOrDefault("io", "exponential").toLowerCase(Locale.ROOT);
+        meanIo = Double.parseDouble(settings.getOrDefault("mean_io", "20"));
+        maxBursts = Integer.parseInt(settings.getOrDefault("max_bursts", "4"));
+        if (!arrival.equals("poisson") && !arrival.equals("bursty"))
+            throw new IllegalArgumentException("Unknown arrival process " + arrival);
+        checkDistribution(cpu);
+        checkDistribution(io);
+        if (meanGap < 0 || meanCpu < 1 || meanIo < 1 || maxBursts < 1 || burstFactor < 1 || burstLength < 1)
+            throw new IllegalArgumentException("Invalid workload settings " + settings);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java WorkloadGenerator <output.pf|output.bin> <processes> [key=value]...");
+            System.err.println("keys: seed, arrival=poisson|bursty, mean_gap, burst_factor, burst_length,");
+            System.err.println("      cpu=exponential|bimodal|pareto, mean_cpu, io=exponential|bimodal|pareto, mean_io, max_bursts, threads");
+            System.exit(1);
+        }
+        Map<String, String> settings = new HashMap<>();
+        for (int k = 2; k < args.length; k++) {
+            String[] entry = args[k].split("=", 2);
+            settings.put(entry[0], entry.length > 1 ? entry[1] : "");
+        }
+        int threads = Integer.parseInt(settings.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long count = Long.parseLong(args[1]);
+        long start = System.nanoTime();
+        new WorkloadGenerator(settings).write(args[0], count, threads);
+        System.out.printf(Locale.ROOT, "Wrote %d processes to %s in %.3f s%n", count, args[0], (System.nanoTime() - start) / 1e9);
+    }
+
+    static void checkDistribution(String name) {
+        if (!name.equals("exponential") && !name.equals("bimodal") && !name.equals("pareto"))
+            throw new IllegalArgumentException("Unknown duration distribution " + name);
+    }
+
+    // Random streams
+
+    SplittableRandom stream(long chunk, int which) { // 0: arrivals, 1: durations
+        return new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (2 * chunk + which + 1));
+    }
+
+    static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    int duration(SplittableRandom random, String distribution, double mean) { // At least 1, at most MAX_DURATION
+        double d;
+        switch (distribution) {
+            case "bimodal": // 80% short bursts of mean / 4, 20% long bursts of 4 * mean
+                d = random.nextDouble() < 0.8 ? exponential(random, mean / 4) : exponential(random, mean * 4);
+                break;
+            case "pareto": // Shape 1.5, scaled to the mean
+                d = mean / 3 * Math.pow(1 - random.nextDouble(), -1 / 1.5);
+                break;
+            default:
+                d = exponential(random, mean);
+        }
+        return (int) Math.max(1, Math.min(MAX_DURATION, Math.round(d)));
+    }
+
+    final class Arrivals { // Gaps between arrivals of one chunk, replayed the same from the same chunk
+        private final SplittableRandom random;
+        private boolean bursting = false;
+
+        Arrivals(long chunk) {
+            random = stream(chunk, 0);
+        }
+
+        int nextGap() {
+            if (arrival.equals("poisson"))
+                return (int) Math.round(exponential(random, meanGap));
+            if (random.nextInt(burstLength) == 0)
+                bursting = !bursting;
+            return (int) Math.round(exponential(random, bursting ? meanGap / burstFactor : meanGap * burstFactor));
+        }
+    }
+
+    long span(long chunk, int size) { // Time from the start of a chunk to its last arrival
+        Arrivals arrivals = new Arrivals(chunk);
+        long span = 0;
+        for (int k = 0; k < size; k++)
+            span += arrivals.nextGap();
+        return span;
+    }
+
+    void fill(ProcessTable table, long chunk, int size, long firstArrival) { // Append the processes of one chunk, arrivals from firstArrival
+        Arrivals arrivals = new Arrivals(chunk);
+        SplittableRandom random = stream(chunk, 1);
+        long time = firstArrival;
+        for (int k = 0; k < size; k++) {
+            time += arrivals.nextGap();
+            table.addProcess((int) time);
+            int bursts = 1 + random.nextInt(maxBursts);
+            for (int b = 0; b < bursts; b++) {
+                if (b > 0)
+                    table.addActivity(Process.ActivityCode.IO, duration(random, io, meanIo));
+                table.addActivity(Process.ActivityCode.CPU, duration(random, cpu, meanCpu));
+            }
+        }
+    }
+
+    long[] chunkStarts(long count, ExecutorService pool) throws Exception { // Arrival time each chunk starts from, the spans are summed in chunk order
+        int chunks = (int) ((count + CHUNK - 1) / CHUNK);
+        Future<?>[] spans = new Future<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long chunk = c;
+            int size = (int) Math.min(CHUNK, count - (long) c * CHUNK);
+            spans[c] = pool.submit(() -> span(chunk, size));
+        }
+        long[] starts = new long[chunks + 1];
+        for (int c = 0; c < chunks; c++)
+            starts[c + 1] = starts[c] + (Long) spans[c].get();
+        if (starts[chunks] > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Arrival times pass " + Integer.MAX_VALUE + ", lower mean_gap or the process count");
+        return starts;
+    }
+
+    public ProcessTable table(int count) { // The same workload in memory, generated on this thread
+        ProcessTable table = new ProcessTable();
+        long time = 0;
+        for (long c = 0; c * CHUNK < count; c++) {
+            int size = (int) Math.min(CHUNK, count - c * CHUNK);
+            fill(table, c, size, time);
+            time = table.getArrivalTime(table.size() - 1);
+        }
+        return table;
+    }
+
+    public void write(String path, long count, int threads) throws Exception { // Chunks are generated in parallel and written in order
+        boolean binary = path.toLowerCase(Locale.ROOT).endsWith(".bin");
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try (FileChannel out = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] starts = chunkStarts(count, pool);
+            if (binary) {
+                ByteBuffer header = ByteBuffer.allocate(BinaryProcessFile.HEADER_SIZE);
+                header.putInt(BinaryProcessFile.MAGIC).putInt(BinaryProcessFile.VERSION).putLong(count).flip();
+                writeFully(out, header);
+            }
+            ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>(); // At most 2 chunks per thread held in memory
+            for (int c = 0; c < starts.length - 1; c++) {
+                long chunk = c;
+                int size = (int) Math.min(CHUNK, count - (long) c * CHUNK);
+                long first = starts[c];
+                inFlight.add(pool.submit(() -> encode(chunk, size, first, binary)));
+                if (inFlight.size() >= 2 * threads)
+                    writeFully(out, inFlight.poll().get());
+            }
+            while (!inFlight.isEmpty())
+                writeFully(out, inFlight.poll().get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            out.write(buffer);
+    }
+
+    ByteBuffer encode(long chunk, int size, long firstArrival, boolean binary) { // Bytes of one chunk in the output format
+        ProcessTable table = new ProcessTable();
+        fill(table, chunk, size, firstArrival);
+        Bytes bytes = new Bytes(size * 32);
+        int previousArrival = (int) firstArrival;
+        for (int row = 0; row < table.size(); row++) {
+            int arrivalTime = table.getArrivalTime(row);
+            if (binary) {
+                bytes.varint(arrivalTime - previousArrival);
+                bytes.varint(table.getActivityEnd(row) - table.getActivityStart(row));
+            } else
+                bytes.number(arrivalTime);
+            previousArrival = arrivalTime;
+            for (int k = table.getActivityStart(row); k < table.getActivityEnd(row); k++) {
+                int activity = table.getActivity(k);
+                if (binary) {
+                    bytes.varint((long) ProcessTable.durationOf(activity) << 1 | (ProcessTable.isIO(activity) ? 1 : 0));
+                } else {
+                    bytes.text(ProcessTable.isIO(activity) ? " IO " : " CPU ");
+                    bytes.number(ProcessTable.durationOf(activity));
+                }
+            }
+            if (!binary)
+                bytes.put('\n');
+        }
+        return ByteBuffer.wrap(bytes.buffer, 0, bytes.length);
+    }
+
+    static final class Bytes { // Growable byte array, numbers written without building Strings
+        byte[] buffer;
+        int length = 0;
+
+        Bytes(int capacity) {
+            buffer = new byte[Math.max(64, capacity)];
+        }
+
+        void put(int b) {
+            if (length == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            buffer[length++] = (byte) b;
+        }
+
+        void text(String s) {
+            for (int k = 0; k < s.length(); k++)
+                put(s.charAt(k));
+        }
+
+        void number(int value) { // Non negative decimal
+            if (value >= 10)
+                number(value / 10);
+            put('0' + value % 10);
+        }
+
+        void varint(long value) { // Same encoding as BinaryProcessFile.writeVarint
+            while ((value & ~0x7FL) != 0) {
+                put((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            put((int) value);
+        }
+    }
+}
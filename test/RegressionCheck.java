@@ -0,0 +1,446 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class RegressionCheck { // Golden outputs of prof_sample and differential runs of the engine variants on random workloads, run from the project folder
+    static final String[] FIELDS = {"arrival", "start", "finish", "service", "turnaround", "normalized", "response"}; // Columns of the metrics file after the id
+    static final String[] LABELS = {"Arrival Time", "Start Time", "Finish Time", "Service Time", "Turnaround Time",
+            "Normalized Turnaround Time", "Average Response Time"}; // The same fields in the prof_sample listings
+    static final String KNOWN = "test/golden/prof_sample.known"; // Accepted differences from prof_sample, pinned to the values the engine gives
+    static final String[] INVARIANTS = {"start >= arrival", "finish >= start", "turnaround >= service", "service = CPU demand"}; // Checked on every row of every run
+    static final Map<String, String> EXPECTED_FAILURES = new LinkedHashMap<>(); // "ALGORITHM invariant" -> known bug breaking it, reported but not failed
+    static final Map<String, Long> expectedSeen = new LinkedHashMap<>(); // Processes breaking each expected failure so far
+
+    static {
+        EXPECTED_FAILURES.put("VRR start >= arrival", "the quantum clock of an idle CPU is not moved on to the next arrival (original vrrHandler)");
+        EXPECTED_FAILURES.put("VRR turnaround >= service", "finish times follow the same lagging quantum clock (original vrrHandler)");
+    }
+
+    interface Workload { // Hands the processes of one run to the kernel
+        void load(ScheduleAlgorithm sa) throws IOException;
+    }
+
+    static final class Result { // What a run is compared on
+        final List<double[]> rows = new ArrayList<>(); // Metrics of every process in id order, id first
+        int finish;
+        long events;
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean golden = false;
+        boolean differential = false;
+        boolean sketch = false;
+        boolean record = false;
+        double tolerance = 0.01; // Normalized turnaround and response, prof_sample rounds them to 2 decimals
+        int workloads = 20;
+        int processes = 2000;
+        long seed = 1;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "golden":
+                    golden = true;
+                    break;
+                case "differential":
+                    differential = true;
+                    break;
+                case "sketch":
+                    sketch = true;
+                    break;
+                case "-record":
+                    record = true;
+                    break;
+                case "-tolerance":
+                    tolerance = Double.parseDouble(args[++k]);
+                    break;
+                case "-workloads":
+                    workloads = Integer.parseInt(args[++k]);
+                    break;
+                case "-processes":
+                    processes = Integer.parseInt(args[++k]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++k]);
+                    break;
+                default:
+                    System.err.println("Usage: java RegressionCheck [golden] [differential] [sketch] [-tolerance x] [-record] [-workloads n] [-processes n] [-seed s]");
+                    System.err.println("every check runs when none is named, -record rewrites " + KNOWN + " from the current engine");
+                    System.exit(1);
+            }
+        }
+        if (!golden && !differential && !sketch)
+            golden = differential = sketch = true;
+        int failures = 0;
+        if (sketch)
+            failures += sketch();
+        if (golden)
+            failures += golden(tolerance, record);
+        if (differential)
+            failures += differential(workloads, processes, seed) + expectedFailures();
+        System.out.println(failures == 0 ? "PASSED" : "FAILED: " + failures + " differences");
+        if (failures > 0)
+            System.exit(1);
+    }
+
+    // Runs
+
+    static Result simulate(ScheduleAlgorithm sa, Map<String, String> settings, Workload workload) throws IOException { // One run on a fresh or reused kernel
+        File metrics = File.createTempFile("regression", ".csv");
+        try {
+            Map<String, String> run = new HashMap<>(settings);
+            run.put("log", "off");
+            run.put("metrics", metrics.getPath());
+            sa.reset(run, System.out);
+            workload.load(sa);
+            sa.simulate(SchedulingPolicy.forName(run.get("name")));
+            Result result = new Result();
+            result.finish = sa.currentTime;
+            result.events = sa.eventCount;
+            List<String> lines = Files.readAllLines(metrics.toPath(), StandardCharsets.UTF_8);
+            for (String line : lines.subList(1, lines.size())) { // After the header
+                String[] columns = line.split(",");
+                double[] row = new double[columns.length];
+                for (int k = 0; k < columns.length; k++)
+                    row[k] = Double.parseDouble(columns[k]);
+                result.rows.add(row);
+            }
+            result.rows.sort(Comparator.comparingDouble(row -> row[0])); // Rows are written in finish order
+            return result;
+        } finally {
+            metrics.delete();
+        }
+    }
+
+    static ScheduleAlgorithm newKernel() {
+        ScheduleAlgorithm sa = new ScheduleAlgorithm(new HashMap<>());
+        sa.exitOnFail = false; // A failed run is reported, the check goes on
+        return sa;
+    }
+
+    // Invariants
+
+    static int invariants(String name, Map<String, String> settings, Result result, ProcessTable table) { // 1 for every invariant the run breaks, expected failures apart
+        long[] broken = new long[INVARIANTS.length];
+        String[] first = new String[INVARIANTS.length];
+        for (double[] row : result.rows) { // id, arrival, start, finish, service, turnaround, normalized, response
+            int id = (int) row[0];
+            boolean[] holds = {row[2] >= row[1], row[3] >= row[2], row[5] >= row[4], row[4] == demand(table, id - 1)};
+            for (int k = 0; k < INVARIANTS.length; k++) {
+                if (!holds[k] && broken[k]++ == 0)
+                    first[k] = "process " + id + " " + Arrays.toString(row);
+            }
+        }
+        String algorithm = settings.get("name").toUpperCase(Locale.ROOT);
+        int failures = 0;
+        for (int k = 0; k < INVARIANTS.length; k++) {
+            if (broken[k] == 0)
+                continue;
+            String key = algorithm + " " + INVARIANTS[k];
+            if (EXPECTED_FAILURES.containsKey(key)) {
+                expectedSeen.merge(key, broken[k], Long::sum);
+                continue;
+            }
+            System.out.println(name + ": " + INVARIANTS[k] + " broken by " + broken[k] + " processes, first " + first[k]);
+            failures++;
+        }
+        return failures;
+    }
+
+    static long demand(ProcessTable table, int row) { // Total CPU time the process asks for
+        long sum = 0;
+        for (int k = table.getActivityStart(row); k < table.getActivityEnd(row); k++) {
+            if (!ProcessTable.isIO(table.getActivity(k)))
+                sum += ProcessTable.durationOf(table.getActivity(k));
+        }
+        return sum;
+    }
+
+    static int expectedFailures() { // Report the expected failures met, 1 for each that no longer fails and should be dropped
+        int failures = 0;
+        for (Map.Entry<String, String> expected : EXPECTED_FAILURES.entrySet()) {
+            Long seen = expectedSeen.get(expected.getKey());
+            if (seen == null) {
+                System.out.println("expected failure " + expected.getKey() + " holds now, drop it from EXPECTED_FAILURES");
+                failures++;
+            } else
+                System.out.printf("expected failure %s: %d processes, %s%n", expected.getKey(), seen, expected.getValue());
+        }
+        return failures;
+    }
+
+    // Golden outputs
+
+    static int golden(double tolerance, boolean record) throws IOException { // Every prof_sample/<alg>.out against process_files/prof.pf
+        Map<String, String> known = new HashMap<>(); // "alg process field reference" -> engine value
+        File knownFile = new File(KNOWN);
+        if (knownFile.isFile() && !record) {
+            for (String line : Files.readAllLines(knownFile.toPath(), StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 5 && !fields[0].startsWith("#"))
+                    known.put(fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3], fields[4]);
+            }
+        }
+        File[] references = new File("prof_sample").listFiles((dir, name) -> name.endsWith(".out"));
+        if (references == null || references.length == 0)
+            throw new IOException("No prof_sample/*.out references");
+        Arrays.sort(references);
+        ProcessTable table = ProcessTable.load(new File("process_files/prof.pf")); // CPU demand of every process
+        List<String> deviations = new ArrayList<>();
+        int failures = 0;
+        for (File reference : references) {
+            String algorithm = reference.getName().replaceFirst("\\.out$", "");
+            List<double[]> expected = readListing(reference);
+            Map<String, String> settings = sampleSettings(algorithm);
+            Result actual;
+            try {
+                actual = simulate(newKernel(), settings, sa -> sa.getProcesses(new File("process_files/prof.pf")));
+            } catch (RuntimeException e) {
+                System.out.println(algorithm + ": run failed: " + e.getMessage());
+                failures++;
+                continue;
+            }
+            int matched = 0;
+            int accepted = 0;
+            int changed = 0;
+            for (int p = 0; p < expected.size(); p++) {
+                if (p >= actual.rows.size()) {
+                    System.out.println(algorithm + ": process " + p + " missing from the engine results");
+                    changed++;
+                    continue;
+                }
+                double[] engine = actual.rows.get(p); // prof_sample numbers processes from 0, the engine from 1, both in arrival order
+                for (int f = 0; f < FIELDS.length; f++) {
+                    double want = expected.get(p)[f];
+                    double got = engine[f + 1];
+                    boolean ratio = f >= 5;
+                    if (Math.abs(want - got) <= (ratio ? tolerance : 0)) {
+                        matched++;
+                        continue;
+                    }
+                    String key = algorithm + " " + p + " " + FIELDS[f] + " " + format(want, ratio);
+                    deviations.add(key + " " + format(got, ratio));
+                    String pinned = known.get(key);
+                    if (pinned != null && Math.abs(Double.parseDouble(pinned) - got) <= (ratio ? tolerance : 0)) {
+                        accepted++;
+                        continue;
+                    }
+                    if (!record)
+                        System.out.println(algorithm + ": process " + p + " " + FIELDS[f] + " = " + format(got, ratio) + ", prof_sample has " + format(want, ratio)
+                                + (pinned == null ? "" : ", " + KNOWN + " has " + pinned));
+                    changed++;
+                }
+            }
+            for (String key : known.keySet()) { // Pinned differences that went away change the results as well
+                if (key.startsWith(algorithm + " ") && !deviations.stream().anyMatch(d -> d.startsWith(key + " ")) && !record) {
+                    System.out.println(algorithm + ": " + key + " now matches prof_sample, drop it from " + KNOWN);
+                    changed++;
+                }
+            }
+            System.out.printf("golden %-5s %3d fields match prof_sample, %3d known differences, %3d %s%n", algorithm, matched, accepted, changed, record ? "recorded" : "changed");
+            if (!record)
+                failures += changed;
+            failures += invariants("golden " + algorithm, settings, actual, table); // The pinned differences must still be possible results
+        }
+        if (record) {
+            knownFile.getParentFile().mkdirs();
+            try (PrintWriter out = new PrintWriter(knownFile, "UTF-8")) {
+                out.println("# Differences of the engine from prof_sample on process_files/prof.pf, written by RegressionCheck -record");
+                out.println("# algorithm, prof_sample process, field, prof_sample value, engine value");
+                for (String deviation : deviations)
+                    out.println(deviation);
+            }
+            System.out.println("Recorded " + deviations.size() + " differences in " + KNOWN);
+        }
+        return failures;
+    }
+
+    static Map<String, String> sampleSettings(String algorithm) throws IOException { // prof_sample/<alg>.sf when there is one, else schedule_files/<alg>.sf
+        File file = new File("prof_sample/" + algorithm + ".sf");
+        if (!file.isFile())
+            file = new File("schedule_files/" + algorithm + ".sf");
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String[] entry = line.trim().split("=", 2);
+            if (entry[0].isEmpty())
+                continue;
+            if (entry.length == 1)
+                settings.put("name", entry[0]); // The samples give the bare algorithm name on the first line
+            else
+                settings.put(entry[0].equals("service_given") ? "service_give" : entry[0], entry[1]); // Spelling of the samples
+        }
+        return settings;
+    }
+
+    static List<double[]> readListing(File reference) throws IOException { // "Process n:" blocks of "Label: value" lines
+        List<double[]> rows = new ArrayList<>();
+        double[] row = null;
+        for (String line : Files.readAllLines(reference.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.startsWith("Process ")) {
+                row = new double[FIELDS.length];
+                Arrays.fill(row, Double.NaN);
+                rows.add(row);
+                continue;
+            }
+            String[] entry = line.split(":", 2);
+            int field = Arrays.asList(LABELS).indexOf(entry[0].trim());
+            if (row != null && entry.length == 2 && field >= 0)
+                row[field] = Double.parseDouble(entry[1].trim());
+        }
+        return rows;
+    }
+
+    static String format(double value, boolean ratio) {
+        return ratio ? String.format(Locale.ROOT, "%.4f", value) : Long.toString(Math.round(value));
+    }
+
+    // Quantile sketch
+
+    static int sketch() { // Quantiles of small samples against their nearest rank, where the rank rounding shows
+        SplittableRandom random = new SplittableRandom(7);
+        int failures = 0;
+        for (int n = 1; n <= 100; n++) {
+            QuantileSketch sketch = new QuantileSketch();
+            double[] values = new double[n];
+            for (int k = 0; k < n; k++) {
+                values[k] = 1 + random.nextInt(10_000) / 100.0;
+                sketch.add(values[k]);
+            }
+            Arrays.sort(values);
+            for (double q : new double[]{0.50, 0.95, 0.99}) {
+                double want = values[(int) Math.max(0, Math.ceil(q * n) - 1)];
+                double got = sketch.quantile(q);
+                if (Math.abs(got - want) > QuantileSketch.RELATIVE_ACCURACY * want) {
+                    System.out.println("sketch: p" + Math.round(q * 100) + " of " + n + " values = " + got + ", nearest rank is " + want);
+                    failures++;
+                }
+            }
+            if (n < 100 && sketch.quantile(0.99) != values[n - 1]) { // Below 100 values the top 1% is the maximum itself
+                System.out.println("sketch: p99 of " + n + " values = " + sketch.quantile(0.99) + ", max is " + values[n - 1]);
+                failures++;
+            }
+        }
+        System.out.printf("sketch: quantiles of 1 to 100 values, %d off%n", failures);
+        return failures;
+    }
+
+    // Differential runs
+
+    static int differential(int workloads, int processes, long seed) throws Exception { // Each optimized path against the reference path on seeded random workloads
+        File directory = Files.createTempDirectory("regression").toFile();
+        ScheduleAlgorithm reused = newKernel(); // Reset between every run, like a BatchReplay worker
+        int failures = 0;
+        int broken = 0;
+        long runs = 0;
+        try {
+            for (int w = 0; w < workloads; w++) {
+                SplittableRandom random = new SplittableRandom(seed * 1_000_003 + w);
+                Map<String, String> shape = new HashMap<>();
+                shape.put("seed", Long.toString(seed * 1_000_003 + w));
+                shape.put("arrival", random.nextBoolean() ? "poisson" : "bursty");
+                shape.put("mean_gap", Integer.toString(1 + random.nextInt(30)));
+                shape.put("cpu", pick(random, "exponential", "bimodal", "pareto"));
+                shape.put("io", pick(random, "exponential", "bimodal", "pareto"));
+                shape.put("max_bursts", Integer.toString(1 + random.nextInt(6)));
+                File text = new File(directory, "w" + w + ".pf");
+                File binary = new File(directory, "w" + w + ".bin");
+                new WorkloadGenerator(shape).write(text.getPath(), processes, 1);
+                BinaryProcessFile.convert(text, binary);
+                ProcessTable table = ProcessTable.load(text);
+
+                for (Map<String, String> settings : randomSettings(random)) {
+                    String name = "workload " + w + " " + settings;
+                    Result reference = simulate(newKernel(), settings, sa -> sa.getProcesses(text)); // Heap event queue, process file read line by line
+                    broken += invariants(name, settings, reference, table); // The variants must give the same rows
+                    Map<String, String> wheel = new HashMap<>(settings);
+                    wheel.put("event_queue", "wheel");
+                    Map<String, String> kept = new HashMap<>(settings);
+                    kept.put("event_queue", w % 2 == 0 ? "heap" : "wheel");
+                    failures += compare(name, "wheel", reference, () -> simulate(newKernel(), wheel, sa -> sa.getProcesses(text)));
+                    failures += compare(name, "table", reference, () -> simulate(newKernel(), settings, sa -> sa.shareProcesses(table)));
+                    failures += compare(name, "binary", reference, () -> simulate(newKernel(), settings, sa -> sa.getProcesses(binary)));
+                    failures += compare(name, "reused", reference, () -> simulate(reused, kept, sa -> sa.getProcesses(text)));
+                    runs += 5;
+                }
+                text.delete();
+                binary.delete();
+            }
+        } finally {
+            directory.delete();
+        }
+        System.out.printf("differential: %d runs on %d workloads of %d processes, %d differ from the reference, %d invariants broken%n",
+                runs, workloads, processes, failures, broken);
+        return failures + broken;
+    }
+
+    interface Run {
+        Result run() throws IOException;
+    }
+
+    static int compare(String name, String variant, Result reference, Run run) throws IOException { // 1 when the variant differs from the reference
+        Result result;
+        try {
+            result = run.run();
+        } catch (RuntimeException e) {
+            System.out.println(variant + " failed on " + name + ": " + e.getMessage());
+            return 1;
+        }
+        String difference = null;
+        if (result.finish != reference.finish)
+            difference = "finish " + result.finish + " instead of " + reference.finish;
+        else if (result.events != reference.events)
+            difference = "events " + result.events + " instead of " + reference.events;
+        else if (result.rows.size() != reference.rows.size())
+            difference = result.rows.size() + " processes instead of " + reference.rows.size();
+        else {
+            for (int k = 0; k < result.rows.size() && difference == null; k++) {
+                if (!Arrays.equals(result.rows.get(k), reference.rows.get(k)))
+                    difference = "process " + Math.round(reference.rows.get(k)[0]) + ": " + Arrays.toString(result.rows.get(k))
+                            + " instead of " + Arrays.toString(reference.rows.get(k));
+            }
+        }
+        if (difference == null)
+            return 0;
+        System.out.println(variant + " differs on " + name + ": " + difference);
+        return 1;
+    }
+
+    static List<Map<String, String>> randomSettings(SplittableRandom random) { // Every algorithm with random parameters
+        List<Map<String, String>> list = new ArrayList<>();
+        list.add(settings("FCFS"));
+        Map<String, String> vrr = settings("VRR");
+        vrr.put("quantum", Integer.toString(1 + random.nextInt(10)));
+        list.add(vrr);
+        for (String name : new String[]{"SRT", "HRRN"}) {
+            Map<String, String> settings = settings(name);
+            settings.put("service_give", Boolean.toString(random.nextBoolean()));
+            settings.put("alpha", String.format(Locale.ROOT, "%.2f", 0.05 + 0.9 * random.nextDouble()));
+            list.add(settings);
+        }
+        Map<String, String> feedback = settings("FEEDBACK");
+        feedback.put("quantum", Integer.toString(1 + random.nextInt(5)));
+        feedback.put("num_priorities", Integer.toString(1 + random.nextInt(4)));
+        list.add(feedback);
+        return list;
+    }
+
+    static Map<String, String> settings(String name) {
+        Map<String, String> settings = new HashMap<>();
+        settings.put("name", name);
+        return settings;
+    }
+
+    static String pick(SplittableRandom random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+}